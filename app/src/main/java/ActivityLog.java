@@ -0,0 +1,183 @@
+import javax.swing.AbstractListModel;
+import javax.swing.Timer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// fixed-size activity log: add() from any thread without locks, the oldest
+// entries fall off the end. Model shows it in a JList; spillTo() copies
+// entries to a rolling file in the background.
+public class ActivityLog {
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final class Entry {
+        final long seq, millis;
+        final String text;
+
+        Entry(long seq, long millis, String text) {
+            this.seq = seq;
+            this.millis = millis;
+            this.text = text;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private volatile Thread spiller;
+
+    // capacity is rounded up to a power of two
+    public ActivityLog(int capacity) {
+        int n = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new AtomicReferenceArray<>(n);
+        mask = n - 1;
+    }
+
+    public int capacity() { return mask + 1; }
+
+    // one line; line breaks in m are flattened
+    public void add(String m) {
+        long seq = next.getAndIncrement();
+        ring.set((int) (seq & mask), new Entry(seq, System.currentTimeMillis(), m.replace('\n', ' ')));
+    }
+
+    // sequence number the next entry will get
+    public long head() { return next.get(); }
+
+    // oldest sequence number still held
+    public long tail() { return Math.max(0, next.get() - capacity()); }
+
+    // "HH:mm:ss text" for seq, or null if it was overwritten or is not written yet
+    public String line(long seq) {
+        Entry e = entry(seq);
+        return e == null ? null : TIME.format(Instant.ofEpochMilli(e.millis)) + "  " + e.text;
+    }
+
+    private Entry entry(long seq) {
+        Entry e = ring.get((int) (seq & mask));
+        return e != null && e.seq == seq ? e : null;
+    }
+
+    // copy every entry to file, rolling it to file.1 .. file.<keep> past maxBytes;
+    // runs on a daemon thread until close()
+    public synchronized void spillTo(Path file, long maxBytes, int keep) {
+        if (spiller != null) return;
+        Thread t = new Thread(() -> spill(file, maxBytes, keep), "activity-log-spill");
+        t.setDaemon(true);
+        spiller = t;
+        t.start();
+    }
+
+    // stop spilling, after writing what is there
+    public void close() {
+        Thread t = spiller;
+        if (t == null) return;
+        spiller = null;
+        t.interrupt();
+        try { t.join(2000); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    private void spill(Path file, long maxBytes, int keep) {
+        long cursor = head();
+        boolean last = false;
+        while (!last) {
+            try { Thread.sleep(500); }
+            catch (InterruptedException e) { last = true; }
+            long h = head();
+            if (h == cursor) continue;
+            try {
+                if (Files.exists(file) && Files.size(file) > maxBytes) roll(file, keep);
+                try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    if (cursor < tail()) { // fell behind by more than the ring holds
+                        w.write("... " + (tail() - cursor) + " entries not written\n");
+                        cursor = tail();
+                    }
+                    for (; cursor < h; cursor++) {
+                        Entry e = entry(cursor);
+                        if (e == null) continue; // still being written or already gone
+                        w.write(DATE_TIME.format(Instant.ofEpochMilli(e.millis)));
+                        w.write("  ");
+                        w.write(e.text);
+                        w.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                cursor = h; // drop this stretch, try again with the next
+            }
+        }
+    }
+
+    private static void roll(Path file, int keep) throws IOException {
+        for (int i = keep - 1; i >= 1; i--) {
+            Path from = file.resolveSibling(file.getFileName() + "." + i);
+            if (Files.exists(from))
+                Files.move(from, file.resolveSibling(file.getFileName() + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // list model over the ring (EDT only). Rows are built only for what the
+    // JList paints; new entries are picked up at most once per frame.
+    public static final class Model extends AbstractListModel<String> {
+        private static final int FRAME_MS = 16;
+
+        private final ActivityLog log;
+        private final Timer frame;
+        private long first, end; // shown: [first, end)
+
+        public Model(ActivityLog log) {
+            this.log = log;
+            frame = new Timer(FRAME_MS, e -> sync());
+            frame.start();
+        }
+
+        @Override public int getSize() { return (int) (end - first); }
+
+        @Override public String getElementAt(int i) {
+            String s = log.line(first + i);
+            return s == null ? "" : s;
+        }
+
+        // hide everything logged so far
+        public void clear() {
+            int n = getSize();
+            first = end = log.head();
+            if (n > 0) fireIntervalRemoved(this, 0, n - 1);
+        }
+
+        public void stop() { frame.stop(); }
+
+        private void sync() {
+            long h = log.head();
+            if (h == end) return;
+            long newFirst = Math.max(first, log.tail());
+            int dropped = (int) (newFirst - first), kept = getSize() - dropped;
+            if (kept <= 0) { // everything shown has been overwritten
+                int n = getSize();
+                first = end = newFirst;
+                if (n > 0) fireIntervalRemoved(this, 0, n - 1);
+            } else if (dropped > 0) {
+                first = newFirst;
+                fireIntervalRemoved(this, 0, dropped - 1);
+            }
+            int from = getSize();
+            end = h;
+            if (getSize() > from) fireIntervalAdded(this, from, getSize() - 1);
+        }
+    }
+}
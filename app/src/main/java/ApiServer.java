@@ -0,0 +1,349 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// HTTP/JSON server mode: one process owns the database file and many
+// clients share it.
+//   java -cp maintenance-app-1.0-SNAPSHOT-all.jar ApiServer --db file.db [--port 8080]
+//
+//   GET    /customers/{phone}                                  200 customer | 404
+//   PUT    /customers/{phone}   {"name","address","email"}     200 updated | 201 inserted
+//   DELETE /customers/{phone}                                  204 | 404
+//   POST   /customers           {"phone","name","address","email"}  201 | 409 exists
+//   GET    /customers?filter=&limit=&afterName=&afterPhone=    next page in (name, phone) order
+//   GET    /customers?filter=&limit=&offset=                   page by position
+//   GET    /search?q=&limit=&offset=                           full-text, best first
+//   POST   /import              CSV body (header optional)     like Cli import
+//   GET    /stats
+//
+// All writes go through one GroupCommit: requests that arrive together are
+// committed together, one transaction for the lot. --linger holds a group
+// open a few ms longer for bigger groups at the cost of write latency.
+public final class ApiServer {
+
+    static final int DEFAULT_PORT = 8080, DEFAULT_THREADS = 64, DEFAULT_BATCH = 512, DEFAULT_LINGER_MS = 0;
+    static final int MAX_PAGE = 1000, MAX_JSON_BYTES = 64 * 1024;
+
+    private static final Metrics.Timer T_REQUEST = Metrics.timer("api.request");
+    private static final Metrics.Counter ERRORS = Metrics.counter("api.errors");
+
+    private final CustomerStore store;
+    private final GroupCommit writes;
+    private final HttpServer http;
+    private final ExecutorService workers;
+    private final Path tmpDir;
+
+    public ApiServer(CustomerStore store, InetSocketAddress address, int threads, int maxBatch, long lingerMillis)
+            throws IOException {
+        this.store = store;
+        this.writes = new GroupCommit(store, maxBatch, lingerMillis);
+        this.tmpDir = Files.createTempDirectory("maintenance-api");
+        AtomicInteger n = new AtomicInteger();
+        // a plain pool: handlers block on the database and on their commit
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "api-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        http = HttpServer.create(address, 1024);
+        http.setExecutor(workers);
+        http.createContext("/customers", this::customers);
+        http.createContext("/search", this::search);
+        http.createContext("/import", this::importCsv);
+        http.createContext("/stats", this::stats);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Deque<String> a = new ArrayDeque<>(Arrays.asList(args));
+        String db = System.getenv("MAINTENANCE_DB"), host = null;
+        int port = DEFAULT_PORT, threads = DEFAULT_THREADS, batch = DEFAULT_BATCH;
+        long linger = DEFAULT_LINGER_MS;
+        while (!a.isEmpty()) {
+            String o = a.poll(), v = a.poll();
+            if (v == null) usage("missing value for " + o);
+            switch (o) {
+                case "--db": db = v; break;
+                case "--host": host = v; break;
+                case "--port": port = Integer.parseInt(v); break;
+                case "--threads": threads = Integer.parseInt(v); break;
+                case "--batch": batch = Integer.parseInt(v); break;
+                case "--linger": linger = Long.parseLong(v); break;
+                default: usage("unknown option " + o);
+            }
+        }
+        if (db == null || db.isBlank()) usage("no database: give --db or set MAINTENANCE_DB");
+
+        ConnectionManager.setDatabasePath(db);
+        CustomerStore store = new CustomerStore();
+        try { ConnectionManager.warmUp(4); }
+        catch (SQLException e) { System.err.println("warm-up failed: " + e.getMessage()); }
+        // loopback unless asked: there is no authentication
+        InetSocketAddress address = host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                : new InetSocketAddress(host, port);
+        ApiServer server = new ApiServer(store, address, threads, batch, linger);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "api-shutdown"));
+        server.start();
+        System.err.println("listening on http://" + address.getHostString() + ":" + server.port() + " (" + db + ")");
+    }
+
+    private static void usage(String problem) {
+        System.err.println("error: " + problem);
+        System.err.println("usage: ApiServer [--db file.db] [--host addr] [--port 8080] [--threads 64] [--batch 512] [--linger ms]");
+        System.exit(2);
+    }
+
+    public void start() { http.start(); }
+
+    public int port() { return http.getAddress().getPort(); }
+
+    // stop taking requests, commit what was accepted, close the database
+    public void stop() {
+        http.stop(1);
+        writes.close();
+        workers.shutdown();
+        try { workers.awaitTermination(5, TimeUnit.SECONDS); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        ConnectionManager.shutdown();
+        try (var files = Files.list(tmpDir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            Files.deleteIfExists(tmpDir);
+        } catch (IOException ignore) { }
+    }
+
+    // ---- handlers
+
+    private void customers(HttpExchange x) throws IOException {
+        handle(x, () -> {
+            String path = x.getRequestURI().getPath();
+            String method = x.getRequestMethod();
+            if (path.equals("/customers") || path.equals("/customers/")) {
+                if (method.equals("GET")) return list(x);
+                if (method.equals("POST")) return write(x, null);
+                return Reply.error(405, "use GET or POST");
+            }
+            if (!path.startsWith("/customers/")) return Reply.error(404, "no such resource");
+            String phone = CustomerStore.normalizePhone(path.substring("/customers/".length()));
+            if (phone.isEmpty()) return Reply.error(400, "phone must have digits");
+            switch (method) {
+                case "GET": {
+                    Customer c = store.getByPhone(phone);
+                    return c == null ? Reply.error(404, "no customer " + phone)
+                            : Reply.json(200, Json.customer(new StringBuilder(), c).toString());
+                }
+                case "PUT": return write(x, phone);
+                case "DELETE": {
+                    CustomerWrite.Outcome o = commit(CustomerWrite.delete(phone));
+                    return o == CustomerWrite.Outcome.DELETED ? Reply.empty(204) : outcome(o, phone);
+                }
+                default: return Reply.error(405, "use GET, PUT or DELETE");
+            }
+        });
+    }
+
+    // POST /customers (phone null: insert) or PUT /customers/{phone} (upsert)
+    private Reply write(HttpExchange x, String phone) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(x));
+        if (phone == null) phone = body.get("phone");
+        else if (body.get("phone") != null && !CustomerStore.normalizePhone(body.get("phone")).equals(phone))
+            return Reply.error(400, "phone in body does not match the path");
+        String name = body.get("name"), address = body.get("address"), email = body.get("email");
+        CustomerStore.CheckedRow checked = CustomerStore.checkRow(phone, name, address, email);
+        Customer row = checked.row;
+        if (row == null) return Reply.json(400, Json.object("error", checked.code.name(), "message", checked.code.message));
+        CustomerWrite.Outcome o = commit(x.getRequestMethod().equals("POST") ? CustomerWrite.insert(row) : CustomerWrite.upsert(row));
+        switch (o) {
+            case INSERTED: return Reply.json(201, Json.customer(new StringBuilder(), row).toString());
+            case UPDATED: return Reply.json(200, Json.customer(new StringBuilder(), row).toString());
+            default: return outcome(o, row.getPhoneNumber());
+        }
+    }
+
+    private CustomerWrite.Outcome commit(CustomerWrite w) {
+        try { return writes.submit(w).join(); }
+        catch (CompletionException e) { return CustomerWrite.Outcome.FAILED; }
+    }
+
+    private static Reply outcome(CustomerWrite.Outcome o, String phone) {
+        switch (o) {
+            case EXISTS: return Reply.error(409, "customer " + phone + " exists");
+            case NOT_FOUND: return Reply.error(404, "no customer " + phone);
+            case INVALID: return Reply.error(400, "invalid customer");
+            default: return Reply.error(500, "write failed");
+        }
+    }
+
+    private Reply list(HttpExchange x) {
+        Map<String, String> q = query(x);
+        String filter = q.get("filter");
+        int limit = limit(q);
+        List<Customer> page;
+        if (q.containsKey("offset")) {
+            page = store.pageAt(filter, Math.max(0, Integer.parseInt(q.get("offset"))), limit);
+        } else {
+            String afterName = q.get("afterName"), afterPhone = q.get("afterPhone");
+            page = afterName == null || afterPhone == null ? store.pageAfter(filter, null, limit)
+                    : store.pageAfter(filter, new Customer(CustomerStore.normalizePhone(afterPhone), afterName, "", ""), limit);
+        }
+        StringBuilder sb = new StringBuilder(128 + page.size() * 96).append("{\"customers\":");
+        array(sb, page);
+        if (page.size() == limit) { // there may be more: where the next page starts
+            Customer last = page.get(page.size() - 1);
+            sb.append(",\"next\":");
+            Json.object(sb, "afterName", last.getName(), "afterPhone", last.getPhoneNumber());
+        }
+        return Reply.json(200, sb.append('}').toString());
+    }
+
+    private void search(HttpExchange x) throws IOException {
+        handle(x, () -> {
+            if (!x.getRequestMethod().equals("GET")) return Reply.error(405, "use GET");
+            Map<String, String> q = query(x);
+            String text = q.get("q");
+            if (text == null || text.isBlank()) return Reply.error(400, "q is required");
+            int offset = q.containsKey("offset") ? Math.max(0, Integer.parseInt(q.get("offset"))) : 0;
+            StringBuilder sb = new StringBuilder(256).append("{\"customers\":");
+            array(sb, store.search(text, limit(q), offset));
+            return Reply.json(200, sb.append('}').toString());
+        });
+    }
+
+    // the body is spooled to a file first: CsvIngest wants a path, and a
+    // slow upload should not hold the writer
+    private void importCsv(HttpExchange x) throws IOException {
+        handle(x, () -> {
+            if (!x.getRequestMethod().equals("POST")) return Reply.error(405, "use POST");
+            Path tmp = Files.createTempFile(tmpDir, "import", ".csv");
+            try {
+                try (InputStream in = x.getRequestBody()) {
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                CsvIngest.Result r = store.ingest(List.of(tmp), CustomerStore.DEFAULT_BATCH_SIZE, null, () -> false);
+                return Reply.json(200, Json.object("total", r.total, "added", r.added, "updated", r.updated,
+                        "skipped", r.skipped, "seconds", r.wallNanos / 1e9));
+            } catch (SQLException e) {
+                return Reply.error(500, "import failed: " + e.getMessage());
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        });
+    }
+
+    private void stats(HttpExchange x) throws IOException {
+        handle(x, () -> {
+            StringBuilder sb = new StringBuilder(1024).append("{\"customers\":").append(store.count(null));
+            for (Metrics.Counter c : Metrics.counters()) {
+                sb.append(',');
+                Json.quote(sb, c.getName()).append(':').append(c.getValue());
+            }
+            for (Metrics.Timer t : Metrics.timers()) {
+                Metrics.Snapshot s = t.snapshot();
+                if (s.count == 0) continue;
+                sb.append(',');
+                Json.quote(sb, t.getName()).append(':');
+                Json.object(sb, "count", s.count, "p50Micros", s.percentile(50) / 1000,
+                        "p99Micros", s.percentile(99) / 1000, "maxMicros", s.maxNanos / 1000);
+            }
+            return Reply.json(200, sb.append('}').toString());
+        });
+    }
+
+    // ---- plumbing
+
+    private static final class Reply {
+        final int status;
+        final String body; // null: no body
+
+        private Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Reply json(int status, String body) { return new Reply(status, body); }
+        static Reply empty(int status) { return new Reply(status, null); }
+        static Reply error(int status, String message) { return new Reply(status, Json.object("error", message)); }
+    }
+
+    private interface Handler { Reply run() throws IOException; }
+
+    private static void handle(HttpExchange x, Handler h) throws IOException {
+        long t0 = System.nanoTime();
+        Reply r;
+        try {
+            r = h.run();
+        } catch (IllegalArgumentException e) { // bad JSON, bad number
+            r = Reply.error(400, String.valueOf(e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            r = Reply.error(500, String.valueOf(e.getMessage()));
+        }
+        if (r.status >= 500) ERRORS.increment();
+        try {
+            if (r.body == null) {
+                x.sendResponseHeaders(r.status, -1);
+            } else {
+                byte[] b = r.body.getBytes(StandardCharsets.UTF_8);
+                x.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                x.sendResponseHeaders(r.status, b.length);
+                try (OutputStream out = x.getResponseBody()) { out.write(b); }
+            }
+        } finally {
+            x.close();
+            T_REQUEST.since(t0);
+        }
+    }
+
+    private static String readBody(HttpExchange x) throws IOException {
+        try (InputStream in = x.getRequestBody()) {
+            byte[] b = in.readNBytes(MAX_JSON_BYTES + 1);
+            if (b.length > MAX_JSON_BYTES) throw new IllegalArgumentException("body over " + MAX_JSON_BYTES + " bytes");
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange x) {
+        Map<String, String> q = new HashMap<>();
+        String raw = x.getRequestURI().getRawQuery();
+        if (raw == null) return q;
+        for (String kv : raw.split("&")) {
+            if (kv.isEmpty()) continue;
+            int eq = kv.indexOf('=');
+            String k = eq < 0 ? kv : kv.substring(0, eq), v = eq < 0 ? "" : kv.substring(eq + 1);
+            q.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+
+    private static int limit(Map<String, String> q) {
+        String s = q.get("limit");
+        return s == null ? 50 : Math.max(1, Math.min(MAX_PAGE, Integer.parseInt(s)));
+    }
+
+    private static void array(StringBuilder sb, List<Customer> page) {
+        sb.append('[');
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) sb.append(',');
+            Json.customer(sb, page.get(i));
+        }
+        sb.append(']');
+    }
+}
@@ -0,0 +1,137 @@
+import javax.swing.SwingUtilities;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+// runs CustomerStore calls off the EDT; results come back as futures
+public class AsyncCustomerStore {
+
+    // hand results back to Swing: future.thenAcceptAsync(..., AsyncCustomerStore.EDT)
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final int IO_THREADS = 4;
+
+    // edits wait this long for company before they are committed together
+    static final int WRITE_BATCH = 256;
+    static final long WRITE_LINGER_MS = 20;
+
+    private final CustomerStore store;
+
+    // reads, imports and exports
+    private final ExecutorService io;
+
+    // writes: queued, coalesced per phone and group-committed in order
+    private final GroupCommit writes;
+
+    public AsyncCustomerStore(CustomerStore store) {
+        this.store = store;
+        io = Executors.newFixedThreadPool(IO_THREADS, threads("store-io"));
+        writes = new GroupCommit(store, WRITE_BATCH, WRITE_LINGER_MS);
+    }
+
+    public CustomerStore getStore() { return store; }
+
+    // writes; each future completes once its write is committed
+    public CompletableFuture<CustomerWrite.Outcome> insert(Customer c) { return writes.submit(CustomerWrite.insert(c)); }
+    public CompletableFuture<CustomerWrite.Outcome> update(Customer c) { return writes.submit(CustomerWrite.update(c)); }
+    public CompletableFuture<CustomerWrite.Outcome> delete(String phoneRaw) { return writes.submit(CustomerWrite.delete(phoneRaw)); }
+
+    // completes when every write submitted so far is committed
+    public CompletableFuture<Void> flush() { return writes.flush(); }
+
+    // runs after queued writes to that phone, so it sees them
+    public CompletableFuture<Customer> getByPhone(String phoneRaw) {
+        return writes.settled(phoneRaw).handleAsync((x, e) -> store.getByPhone(phoneRaw), io);
+    }
+
+    // full-text search
+    public CompletableFuture<List<Customer>> search(String query, int limit, int offset) {
+        return CompletableFuture.supplyAsync(() -> store.search(query, limit, offset), io);
+    }
+
+    // paging
+    public CompletableFuture<Long> count(String filter) {
+        return CompletableFuture.supplyAsync(() -> store.count(filter), io);
+    }
+    public CompletableFuture<List<Customer>> pageAfter(String filter, Customer after, int limit) {
+        return CompletableFuture.supplyAsync(() -> store.pageAfter(filter, after, limit), io);
+    }
+    public CompletableFuture<List<Customer>> pageBefore(String filter, Customer before, int limit) {
+        return CompletableFuture.supplyAsync(() -> store.pageBefore(filter, before, limit), io);
+    }
+    public CompletableFuture<List<Customer>> pageAt(String filter, int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> store.pageAt(filter, offset, limit), io);
+    }
+
+    // (re)build a search index from the table
+    public CompletableFuture<Boolean> loadIndex(CustomerSearchIndex index) {
+        return CompletableFuture.supplyAsync(() -> index.load(store), io);
+    }
+
+    // latest consistent version of the table (loads it the first time)
+    public CompletableFuture<CustomerView> view() {
+        return CompletableFuture.supplyAsync(store::view, io);
+    }
+
+    // the last published version, null before the first load; never blocks
+    public CustomerView latestView() { return store.latestView(); }
+
+    // long jobs: cancel(true) on the returned future stops them
+    public CompletableFuture<String> ingestCsv(List<Path> paths, CustomerStore.ImportProgress progress) {
+        return cancellable(cancelled ->
+                store.ingestCsv(paths, CustomerStore.DEFAULT_BATCH_SIZE, progress, cancelled));
+    }
+
+    // null stats = failed; cancel() stops it and removes the file
+    public CompletableFuture<CustomerStore.ExportStats> exportCsv(Path path, boolean gzip,
+                                                                  CustomerStore.ExportProgress progress) {
+        return cancellable(cancelled -> store.exportCsv(path, gzip, progress, cancelled));
+    }
+    public CompletableFuture<CustomerStore.ExportStats> exportChanges(Path path, boolean gzip,
+                                                                      CustomerStore.ExportProgress progress) {
+        return cancellable(cancelled -> store.exportChanges(path, gzip, progress, cancelled));
+    }
+
+    // change log seq of the last backup, null if there is none yet
+    public CompletableFuture<Long> backupCheckpoint() {
+        return CompletableFuture.supplyAsync(store::backupCheckpoint, io);
+    }
+
+    // commit queued writes, stop taking work, give running jobs a moment to finish
+    public void shutdown() {
+        writes.close();
+        io.shutdown();
+        try {
+            io.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> cancellable(Function<BooleanSupplier, T> task) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        io.execute(() -> {
+            if (f.isDone()) return;
+            try { f.complete(task.apply(f::isCancelled)); }
+            catch (Throwable t) { f.completeExceptionally(t); }
+        });
+        return f;
+    }
+
+    private static ThreadFactory threads(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
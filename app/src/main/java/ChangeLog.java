@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// append-only journal of row changes: triggers on customers add (seq, op,
+// phone) in the same transaction as the change, so every write path is
+// covered (single writes, group commits, imports). seq only grows; it is
+// AUTOINCREMENT, so pruned numbers are never handed out again.
+//
+// Incremental backups build on it. A full export records the seq it is
+// consistent with as the "backup" checkpoint; an export of changes writes
+// the net change per phone since then and moves the checkpoint on. Log
+// rows no checkpoint needs are pruned, so the log, and a change export,
+// grow with the rate of change rather than with the table. compact()
+// folds a full export and the change files after it into a new full export.
+public final class ChangeLog {
+
+    public static final String BACKUP = "backup";
+    // checkpoint row that records how far the log has been pruned
+    private static final String PRUNED = "pruned";
+
+    // first column of a change file: the row as it is now, or deleted
+    static final String UPSERT = "U", DELETE = "D";
+    static final String[] CHANGES_HEADER = {"Op", "Phone", "Name", "Address", "Email"};
+    static final String[] FULL_HEADER = {"Phone", "Name", "Address", "Email"};
+
+    private static final Metrics.Timer T_CHANGES = Metrics.timer("changelog.export"),
+            T_COMPACT = Metrics.timer("changelog.compact");
+    private static final Metrics.Counter PRUNED_ROWS = Metrics.counter("changelog.pruned");
+
+    private ChangeLog() { }
+
+    // schema step 4; the log starts empty, a full export is the first base
+    static void createSchema(Statement st) throws SQLException {
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS customer_changes (
+              seq INTEGER PRIMARY KEY AUTOINCREMENT,
+              op TEXT NOT NULL,
+              phone TEXT NOT NULL
+            )
+        """);
+        st.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS change_checkpoints (
+              name TEXT PRIMARY KEY,
+              seq INTEGER NOT NULL
+            ) WITHOUT ROWID
+        """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_log_ai AFTER INSERT ON customers BEGIN
+              INSERT INTO customer_changes(op, phone) VALUES ('I', new.phone);
+            END
+        """);
+        // upserts that rewrite a row unchanged are not changes
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_log_au AFTER UPDATE ON customers
+            WHEN old.phone IS NOT new.phone OR old.name IS NOT new.name
+              OR old.address IS NOT new.address OR old.email IS NOT new.email BEGIN
+              INSERT INTO customer_changes(op, phone) SELECT 'D', old.phone WHERE old.phone IS NOT new.phone;
+              INSERT INTO customer_changes(op, phone)
+                VALUES (CASE WHEN old.phone IS NOT new.phone THEN 'I' ELSE 'U' END, new.phone);
+            END
+        """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_log_ad AFTER DELETE ON customers BEGIN
+              INSERT INTO customer_changes(op, phone) VALUES ('D', old.phone);
+            END
+        """);
+    }
+
+    // last seq handed out, 0 if none
+    public static long head() throws SQLException {
+        try (Connection c = ConnectionManager.getReadConnection()) { return head(c); }
+    }
+
+    static long head(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT seq FROM sqlite_sequence WHERE name='customer_changes'")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // seq a checkpoint is at, null if it was never set
+    public static Long checkpoint(String name) throws SQLException {
+        try (Connection c = ConnectionManager.getReadConnection()) { return checkpoint(c, name); }
+    }
+
+    private static Long checkpoint(Connection c, String name) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT seq FROM change_checkpoints WHERE name=?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? rs.getLong(1) : null; }
+        }
+    }
+
+    // oldest seq changes can still be exported from: the log before it was pruned
+    public static long floor() throws SQLException {
+        try (Connection c = ConnectionManager.getReadConnection()) {
+            Long pruned = checkpoint(c, PRUNED);
+            return pruned == null ? 0 : pruned;
+        }
+    }
+
+    // move a checkpoint forward (never back), then drop the log rows that
+    // no checkpoint needs any more; returns how many were dropped
+    static int advance(String name, long seq) throws SQLException {
+        try (Connection c = ConnectionManager.getWriteConnection()) {
+            c.setAutoCommit(false);
+            setMax(c, name, seq);
+            long keep;
+            try (PreparedStatement ps = c.prepareStatement("SELECT MIN(seq) FROM change_checkpoints WHERE name<>?")) {
+                ps.setString(1, PRUNED);
+                try (ResultSet rs = ps.executeQuery()) { keep = rs.next() ? rs.getLong(1) : 0; }
+            }
+            int n;
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM customer_changes WHERE seq<=?")) {
+                ps.setLong(1, keep);
+                n = ps.executeUpdate();
+            }
+            setMax(c, PRUNED, keep);
+            c.commit();
+            c.setAutoCommit(true);
+            PRUNED_ROWS.add(n);
+            return n;
+        }
+    }
+
+    private static void setMax(Connection c, String name, long seq) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO change_checkpoints(name, seq) VALUES (?,?) "
+                + "ON CONFLICT(name) DO UPDATE SET seq=max(seq, excluded.seq)")) {
+            ps.setString(1, name);
+            ps.setLong(2, seq);
+            ps.executeUpdate();
+        }
+    }
+
+    // phones changed in (after, upTo], or null if the log was pruned past after
+    static List<String> changedPhones(long after, long upTo) throws SQLException {
+        try (Connection c = ConnectionManager.getReadConnection()) {
+            c.setAutoCommit(false); // one snapshot for the floor and the rows
+            try {
+                Long pruned = checkpoint(c, PRUNED);
+                if (pruned != null && after < pruned) return null;
+                List<String> out = new ArrayList<>();
+                try (PreparedStatement ps = c.prepareStatement(
+                        "SELECT DISTINCT phone FROM customer_changes WHERE seq > ? AND seq <= ?")) {
+                    ps.setLong(1, after);
+                    ps.setLong(2, upTo);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) out.add(rs.getString(1));
+                    }
+                }
+                return out;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    // every phone changed after since, in phone order, with its row as it
+    // is now (name, address and email null: deleted). atSeq gets the seq
+    // the rows are consistent with before the first row. Fails if the log
+    // was pruned past since.
+    static long exportSince(long since, int fetchSize, LongConsumer atSeq, CustomerDao.RowSink sink)
+            throws SQLException, IOException {
+        long n = 0, t0 = System.nanoTime();
+        try (Connection c = ConnectionManager.getReadConnection()) {
+            c.setAutoCommit(false); // one snapshot for the head, the floor and the rows
+            try {
+                long head = head(c);
+                Long pruned = checkpoint(c, PRUNED);
+                if (pruned != null && since < pruned)
+                    throw new SQLException("changes up to " + pruned + " were pruned; export everything instead");
+                atSeq.accept(head);
+                try (PreparedStatement ps = c.prepareStatement("""
+                        SELECT d.phone, c.name, c.address, c.email
+                        FROM (SELECT DISTINCT phone FROM customer_changes WHERE seq > ? AND seq <= ?) d
+                        LEFT JOIN customers c ON c.phone = d.phone
+                        ORDER BY d.phone""")) {
+                    ps.setFetchSize(fetchSize);
+                    ps.setLong(1, since);
+                    ps.setLong(2, head);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            n++;
+                            if (!sink.row(rs.getBytes(1), rs.getBytes(2), rs.getBytes(3), rs.getBytes(4))) break;
+                        }
+                    }
+                }
+            } finally {
+                c.setAutoCommit(true); // ends the read transaction; the pool resets it if this throws
+            }
+        } finally {
+            T_CHANGES.since(t0);
+        }
+        return n;
+    }
+
+    // full export + change files (oldest first) -> new full export, without
+    // the database. Changes are held in memory (they are the small part);
+    // the base is streamed and, being in phone order, so is the output.
+    // Returns the rows written.
+    public static long compact(Path base, List<Path> changes, Path out) throws IOException {
+        long t0 = System.nanoTime();
+        TreeMap<String, String[]> latest = new TreeMap<>(); // phone -> {name, address, email}, null = deleted
+        for (Path p : changes) readChanges(p, latest);
+        // written aside and renamed onto out: out may be one of the inputs,
+        // and a failure leaves whatever was there before
+        Path part = out.resolveSibling(out.getFileName() + ".part");
+        try {
+            long rows = merge(base, latest, part, gzip(out));
+            try (FileChannel ch = FileChannel.open(part, StandardOpenOption.WRITE)) { ch.force(true); }
+            try { Files.move(part, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); }
+            catch (AtomicMoveNotSupportedException e) { Files.move(part, out, StandardCopyOption.REPLACE_EXISTING); }
+            return rows;
+        } finally {
+            Files.deleteIfExists(part);
+            T_COMPACT.since(t0);
+        }
+    }
+
+    private static long merge(Path base, TreeMap<String, String[]> latest, Path out, boolean gzip) throws IOException {
+        long rows = 0;
+        try (FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream os = gzip ? new GZIPOutputStream(Channels.newOutputStream(ch), 1 << 16)
+                     : Channels.newOutputStream(ch);
+             CsvWriter w = new CsvWriter(os);
+             CsvReader csv = open(base)) {
+            for (String h : FULL_HEADER) w.field(h);
+            w.endRow();
+            boolean first = true;
+            String last = null;
+            while (csv.next()) {
+                if (csv.isBlank()) continue;
+                if (first) {
+                    first = false;
+                    if (CustomerStore.isHeader(csv)) {
+                        if (csv.fields() != FULL_HEADER.length) throw new IOException(base + " is not a full export");
+                        continue;
+                    }
+                }
+                if (csv.fields() != FULL_HEADER.length) throw new IOException(base + ": bad record " + csv.records());
+                String phone = csv.get(0);
+                if (last != null && phone.compareTo(last) <= 0) throw new IOException(base + " is not in phone order");
+                last = phone;
+                rows += added(latest.headMap(phone, false), w);
+                if (latest.containsKey(phone)) {
+                    String[] now = latest.remove(phone);
+                    if (now != null) { row(w, phone, now); rows++; }
+                } else {
+                    for (int i = 0; i < FULL_HEADER.length; i++) w.field(csv.get(i));
+                    w.endRow();
+                    rows++;
+                }
+            }
+            rows += added(latest, w);
+        }
+        return rows;
+    }
+
+    // write the upserts in part (new phones), removing everything in it
+    private static long added(Map<String, String[]> part, CsvWriter w) throws IOException {
+        long n = 0;
+        for (Iterator<Map.Entry<String, String[]>> it = part.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, String[]> e = it.next();
+            if (e.getValue() != null) { row(w, e.getKey(), e.getValue()); n++; }
+            it.remove();
+        }
+        return n;
+    }
+
+    private static void row(CsvWriter w, String phone, String[] v) throws IOException {
+        w.field(phone);
+        for (String s : v) w.field(s);
+        w.endRow();
+    }
+
+    private static void readChanges(Path p, Map<String, String[]> latest) throws IOException {
+        try (CsvReader csv = open(p)) {
+            boolean first = true;
+            while (csv.next()) {
+                if (csv.isBlank()) continue;
+                if (first) {
+                    first = false;
+                    if (csv.fields() == CHANGES_HEADER.length && csv.get(0).equals(CHANGES_HEADER[0])) continue;
+                    throw new IOException(p + " is not a change export");
+                }
+                String op = csv.get(0);
+                if (op.equals(DELETE) && csv.fields() >= 2) latest.put(csv.get(1), null);
+                else if (op.equals(UPSERT) && csv.fields() == CHANGES_HEADER.length)
+                    latest.put(csv.get(1), new String[]{csv.get(2), csv.get(3), csv.get(4)});
+                else throw new IOException(p + ": bad record " + csv.records());
+            }
+        }
+    }
+
+    private static boolean gzip(Path p) { return p.getFileName().toString().endsWith(".gz"); }
+
+    private static CsvReader open(Path p) throws IOException {
+        if (!gzip(p)) return CsvReader.open(p);
+        InputStream in = new GZIPInputStream(Files.newInputStream(p), 1 << 16);
+        return new CsvReader(Channels.newChannel(in));
+    }
+}
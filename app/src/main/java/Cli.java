@@ -0,0 +1,318 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// headless entry point for scripts and cron jobs:
+//   java -cp maintenance-app-1.0-SNAPSHOT-all.jar Cli [--db file.db] <command> ...
+// Results are JSON, one object per line, on stdout (on stderr when stdout
+// carries the data, as for export to -). Never touches Swing or AWT.
+public final class Cli {
+
+    static final int OK = 0, PARTIAL = 1, USAGE = 2, DB_ERROR = 3, IO_ERROR = 4;
+
+    // upsert rows per transaction when they come from stdin
+    static final int UPSERT_BATCH = 512;
+
+    private static final String USAGE_TEXT = """
+        usage: Cli [--db file.db] <command> [args]
+          import [--batch N] [file|dir|-]...   CSV files in parallel, last file wins per phone (none: stdin)
+          export [--gzip] [--commit] [file|-]  all customers as CSV (default: stdout)
+          export --changes [--since SEQ] [--gzip] [--commit] [file|-]
+                                               only customers changed since the last export (or SEQ)
+                                               a file export becomes the last export once it is in
+                                               place; to stdout only with --commit
+          compact FULL CHANGES... -o OUT       apply change exports, oldest first, to a full export
+          get [phone]...                       one JSON line per phone (none: phones from stdin)
+          upsert [phone name address [email]]  insert or update (none: CSV rows from stdin)
+          delete [phone]...                    (none: phones from stdin)
+          stats                                row count, schema version, change log position, file sizes
+        --db defaults to $MAINTENANCE_DB
+        exit: 0 ok, 1 some rows rejected or not found, 2 usage, 3 database error, 4 I/O error
+        """;
+
+    private final Writer out = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16);
+    private final PrintStream err = System.err;
+    private String db;
+
+    public static void main(String[] args) {
+        System.exit(new Cli().run(args));
+    }
+
+    int run(String[] args) {
+        Metrics.disableJmx();
+        Deque<String> a = new ArrayDeque<>(Arrays.asList(args));
+        db = System.getenv("MAINTENANCE_DB");
+        while (!a.isEmpty() && a.peek().startsWith("--")) {
+            String o = a.poll();
+            if (o.equals("--db") && !a.isEmpty()) db = a.poll();
+            else return usage("unknown option " + o);
+        }
+        if (a.isEmpty()) return usage(null);
+        String cmd = a.poll();
+        if (cmd.equals("compact")) { // files only, no database
+            try { return compact(a); }
+            catch (IOException | RuntimeException e) { return fail(IO_ERROR, e); }
+            finally { try { out.flush(); } catch (IOException ignore) { } }
+        }
+        if (db == null || db.isBlank()) return usage("no database: give --db or set MAINTENANCE_DB");
+
+        ConnectionManager.setDatabasePath(db);
+        try {
+            CustomerStore store = new CustomerStore();
+            switch (cmd) {
+                case "import": return importCsv(store, a);
+                case "export": return export(store, a);
+                case "get": return get(a);
+                case "upsert": return upsert(store, a);
+                case "delete": return delete(store, a);
+                case "stats": return stats();
+                default: return usage("unknown command " + cmd);
+            }
+        } catch (SQLException | RuntimeException e) {
+            return fail(DB_ERROR, e);
+        } catch (IOException e) {
+            return fail(IO_ERROR, e);
+        } finally {
+            try { out.flush(); } catch (IOException ignore) { }
+            ConnectionManager.shutdown();
+        }
+    }
+
+    private int importCsv(CustomerStore store, Deque<String> a) throws IOException, SQLException {
+        int batch = CustomerStore.DEFAULT_BATCH_SIZE;
+        List<Path> paths = new ArrayList<>();
+        while (!a.isEmpty()) {
+            String x = a.poll();
+            if (x.equals("--batch") && !a.isEmpty()) {
+                String v = a.poll();
+                try { batch = Integer.parseInt(v); }
+                catch (NumberFormatException e) { batch = 0; }
+                if (batch <= 0) return usage("--batch takes a positive number, not " + v);
+            } else paths.add(Path.of(x));
+        }
+        if (paths.isEmpty()) paths.add(CsvIngest.STDIN);
+        for (Path p : paths)
+            if (!p.equals(CsvIngest.STDIN) && !Files.exists(p)) throw new IOException("no such file: " + p);
+        CsvIngest.Result r = store.ingest(paths, batch, null, () -> false);
+        line(out, "command", "import", "files", r.files, "total", r.total, "added", r.added, "updated", r.updated,
+                "skipped", r.skipped, "seconds", r.wallNanos / 1e9, "rowsPerSec", Math.round(r.total * 1e9 / Math.max(1, r.wallNanos)));
+        return r.skipped > 0 ? PARTIAL : OK;
+    }
+
+    private int export(CustomerStore store, Deque<String> a) throws IOException, SQLException {
+        boolean gzip = false, changes = false, commit = false;
+        Long since = null;
+        String target = "-";
+        while (!a.isEmpty()) {
+            String x = a.poll();
+            if (x.equals("--gzip")) gzip = true;
+            else if (x.equals("--changes")) changes = true;
+            else if (x.equals("--commit")) commit = true;
+            else if (x.equals("--since") && !a.isEmpty()) {
+                String v = a.poll();
+                try { since = Long.parseLong(v); }
+                catch (NumberFormatException e) { return usage("--since takes a change log position, not " + v); }
+            } else target = x;
+        }
+        if (since != null && !changes) return usage("--since needs --changes");
+        if (changes && since == null) {
+            since = store.backupCheckpoint();
+            if (since == null) return usage("nothing exported yet: run a full export first");
+        }
+        if (changes && since < ChangeLog.floor())
+            throw new SQLException("changes before " + ChangeLog.floor() + " were pruned; run a full export");
+        long from = changes ? since : -1;
+        CustomerStore.ExportStats st;
+        Writer summary;
+        boolean stdout = target.equals("-");
+        if (stdout) {
+            OutputStream os = Channels.newOutputStream(new FileOutputStream(FileDescriptor.out).getChannel());
+            st = export(store, os, gzip, from);
+            summary = new OutputStreamWriter(err, StandardCharsets.UTF_8);
+        } else {
+            // written aside and moved into place, so a failure leaves no partial file
+            st = store.exportTo(Path.of(target), gzip || target.endsWith(".gz"), from, null, () -> false);
+            summary = out;
+        }
+        if (st == null) throw new IOException("export to " + target + " failed");
+        // whoever reads stdout may still fail: record it only when asked to
+        boolean recorded = (!stdout || commit) && store.recordBackup(st);
+        line(summary, "command", "export", "changes", changes, "since", changes ? st.since : null, "checkpoint", st.checkpoint,
+                "recorded", recorded, "rows", st.rows, "bytes", st.bytes, "seconds", st.nanos / 1e9,
+                "mbPerSec", Math.round(st.bytesPerSec() / 1e5) / 10.0);
+        summary.flush();
+        return OK;
+    }
+
+    private static CustomerStore.ExportStats export(CustomerStore store, OutputStream os, boolean gzip, long since) {
+        return since < 0 ? store.exportCsv(os, gzip, null, () -> false)
+                : store.exportChanges(os, since, gzip, null, () -> false);
+    }
+
+    private int compact(Deque<String> a) throws IOException {
+        List<Path> in = new ArrayList<>();
+        Path target = null;
+        while (!a.isEmpty()) {
+            String x = a.poll();
+            if (x.equals("-o") && !a.isEmpty()) target = Path.of(a.poll());
+            else in.add(Path.of(x));
+        }
+        if (target == null || in.isEmpty()) return usage("compact takes FULL [CHANGES...] -o OUT");
+        long t0 = System.nanoTime();
+        long rows = ChangeLog.compact(in.get(0), in.subList(1, in.size()), target);
+        line(out, "command", "compact", "files", in.size(), "rows", rows, "out", target.toString(),
+                "seconds", (System.nanoTime() - t0) / 1e9);
+        return OK;
+    }
+
+    private int get(Deque<String> a) throws IOException, SQLException {
+        int missing = 0;
+        for (String p : argsOrStdin(a)) {
+            Customer c = CustomerDao.find(CustomerStore.normalizePhone(p));
+            if (c == null) {
+                missing++;
+                line(out, "phone", p, "found", false);
+            } else {
+                line(out, "phone", c.getPhoneNumber(), "found", true, "name", c.getName(),
+                        "address", c.getAddress(), "email", CustomerStore.safe(c.getEmail()));
+            }
+        }
+        return missing > 0 ? PARTIAL : OK;
+    }
+
+    private int upsert(CustomerStore store, Deque<String> a) throws IOException {
+        Upserts batch = new Upserts(store);
+        if (!a.isEmpty()) {
+            if (a.size() < 3 || a.size() > 4) return usage("upsert takes phone name address [email]");
+            String[] c = a.toArray(new String[0]);
+            batch.add(c[0], c[1], c[2], c.length > 3 ? c[3] : "");
+            batch.flush();
+            return batch.rejected > 0 ? PARTIAL : OK;
+        }
+        try (CsvReader csv = new CsvReader(Channels.newChannel(System.in))) {
+            boolean first = true;
+            while (csv.next()) {
+                if (csv.isBlank()) continue;
+                if (first) {
+                    first = false;
+                    if (CustomerStore.isHeader(csv)) continue;
+                }
+                if (csv.fields() < 3 || csv.fields() > 4) batch.rejected("record", csv.records(), "result", "invalid", "error", "FIELD_COUNT");
+                else batch.add(csv.get(0), csv.get(1), csv.get(2), csv.fields() > 3 ? csv.get(3) : "");
+            }
+        }
+        batch.flush();
+        return batch.rejected > 0 ? PARTIAL : OK;
+    }
+
+    // upserts applied UPSERT_BATCH at a time in one transaction each; one
+    // JSON line per row, in input order
+    private final class Upserts {
+        private final CustomerStore store;
+        private final List<CustomerWrite> writes = new ArrayList<>();
+        private final List<Object[]> lines = new ArrayList<>(); // null: the next write's result
+        int rejected;
+
+        Upserts(CustomerStore store) { this.store = store; }
+
+        void add(String phone, String name, String address, String email) throws IOException {
+            CustomerStore.CheckedRow checked = CustomerStore.checkRow(phone, name, address, email);
+            Customer row = checked.row;
+            if (row == null) {
+                rejected("phone", phone, "result", "invalid", "error", checked.code.name(), "message", checked.code.message);
+                return;
+            }
+            writes.add(CustomerWrite.upsert(row));
+            lines.add(null);
+            if (writes.size() >= UPSERT_BATCH) flush();
+        }
+
+        void rejected(Object... kv) {
+            rejected++;
+            lines.add(kv);
+        }
+
+        void flush() throws IOException {
+            CustomerWrite.Outcome[] done = writes.isEmpty() ? new CustomerWrite.Outcome[0] : store.applyAll(writes);
+            int k = 0;
+            for (Object[] kv : lines) {
+                if (kv != null) { line(out, kv); continue; }
+                CustomerWrite.Outcome o = done[k];
+                String result = o == CustomerWrite.Outcome.INSERTED ? "inserted" : o == CustomerWrite.Outcome.UPDATED ? "updated" : "failed";
+                if (result.equals("failed")) rejected++;
+                line(out, "phone", writes.get(k++).phone, "result", result);
+            }
+            writes.clear();
+            lines.clear();
+        }
+    }
+
+    private int delete(CustomerStore store, Deque<String> a) throws IOException {
+        int missing = 0;
+        for (String p : argsOrStdin(a)) {
+            boolean deleted = store.delete(p);
+            if (!deleted) missing++;
+            line(out, "phone", CustomerStore.normalizePhone(p), "deleted", deleted);
+        }
+        return missing > 0 ? PARTIAL : OK;
+    }
+
+    private int stats() throws IOException, SQLException {
+        int version;
+        try (Connection c = ConnectionManager.getReadConnection(); Statement st = c.createStatement()) {
+            version = SchemaMigrations.userVersion(st);
+        }
+        Path file = Path.of(db), wal = Path.of(db + "-wal");
+        line(out, "command", "stats", "db", file.toAbsolutePath().toString(), "customers", CustomerDao.count(),
+                "schemaVersion", version, "changeSeq", ChangeLog.head(), "backupCheckpoint", ChangeLog.checkpoint(ChangeLog.BACKUP),
+                "fileBytes", Files.size(file), "walBytes", Files.exists(wal) ? Files.size(wal) : 0);
+        return OK;
+    }
+
+    // the arguments, or else non-blank lines of stdin
+    private static Iterable<String> argsOrStdin(Deque<String> a) throws IOException {
+        if (!a.isEmpty()) return a;
+        List<String> lines = new ArrayList<>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        for (String s; (s = in.readLine()) != null; ) if (!s.isBlank()) lines.add(s.trim());
+        return lines;
+    }
+
+    private int usage(String problem) {
+        if (problem != null) err.println("error: " + problem);
+        err.print(USAGE_TEXT);
+        return USAGE;
+    }
+
+    private int fail(int code, Exception e) {
+        try {
+            out.flush();
+            Writer w = new OutputStreamWriter(err, StandardCharsets.UTF_8);
+            line(w, "error", String.valueOf(e.getMessage()), "exitCode", code);
+            w.flush();
+        } catch (IOException ignore) { }
+        return code;
+    }
+
+    private static void line(Writer w, Object... kv) throws IOException { Json.line(w, kv); }
+}
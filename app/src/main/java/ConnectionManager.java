@@ -0,0 +1,253 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionManager {
+
+    // db path is set by GUI at startup
+    private static String dbPath = null;
+
+    // pool sizing
+    private static final int MAX_READERS = 4;
+    private static final long READ_WAIT_MS = 5_000;
+    private static final long VALIDATE_AFTER_MS = 30_000;
+
+    // applied to every connection (journal_mode only on the writer)
+    private static final String[] PRAGMAS = {
+            "PRAGMA synchronous=NORMAL",
+            "PRAGMA mmap_size=268435456",
+            "PRAGMA cache_size=-16000",
+            "PRAGMA temp_store=MEMORY",
+            "PRAGMA busy_timeout=5000"
+    };
+
+    // one writer shared in turns, readers pooled
+    private static final ReentrantLock writeLock = new ReentrantLock(true);
+    private static volatile Pooled writer;
+    private static final BlockingQueue<Pooled> idleReaders = new ArrayBlockingQueue<>(MAX_READERS);
+    private static final AtomicInteger openReaders = new AtomicInteger();
+    private static volatile boolean driverLoaded;
+    private static volatile int generation;
+
+    private static final Metrics.Counter OPENED = Metrics.counter("db.connections.opened");
+    private static final Metrics.Timer WRITER_WAIT = Metrics.timer("db.writer.wait");
+
+    // set by GUI
+    public static void setDatabasePath(String path) {
+        shutdown();
+        dbPath = path;
+    }
+
+    public static String getDatabasePath() { return dbPath; }
+
+    // get connection (writer, kept for callers that read and write)
+    public static Connection getConnection() throws SQLException { return getWriteConnection(); }
+
+    // writer: exclusive until close() is called on the returned handle
+    public static Connection getWriteConnection() throws SQLException {
+        long t0 = System.nanoTime();
+        writeLock.lock();
+        WRITER_WAIT.since(t0);
+        try {
+            if (writer == null || writer.gen != generation || !writer.check()) {
+                if (writer != null) writer.closeQuietly();
+                writer = new Pooled(open(false), generation);
+            }
+            Pooled w = writer;
+            return lease(w, () -> releaseWriter(w));
+        } catch (SQLException | RuntimeException e) {
+            writeLock.unlock();
+            throw e;
+        }
+    }
+
+    // reader: read-only, returned to the pool on close()
+    public static Connection getReadConnection() throws SQLException {
+        if (writer == null) getWriteConnection().close(); // writer sets WAL first
+        Pooled r;
+        while ((r = idleReaders.poll()) != null) {
+            if (r.gen == generation && r.check()) return lease(r, releaseReader(r));
+            r.closeQuietly();
+            openReaders.decrementAndGet();
+        }
+        if (openReaders.incrementAndGet() <= MAX_READERS) {
+            try { r = new Pooled(open(true), generation); }
+            catch (SQLException | RuntimeException e) { openReaders.decrementAndGet(); throw e; }
+            return lease(r, releaseReader(r));
+        }
+        openReaders.decrementAndGet();
+        try {
+            r = idleReaders.poll(READ_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a read connection", e);
+        }
+        if (r == null) throw new SQLException("Timed out waiting for a read connection");
+        if (r.gen != generation || !r.check()) {
+            r.closeQuietly();
+            openReaders.decrementAndGet();
+            return getReadConnection();
+        }
+        return lease(r, releaseReader(r));
+    }
+
+    // open the writer (driver, WAL) and a few readers before the first
+    // queries need them; they stay in the pool
+    public static void warmUp(int readers) throws SQLException {
+        getWriteConnection().close();
+        Connection[] held = new Connection[Math.min(readers, MAX_READERS)];
+        try {
+            for (int i = 0; i < held.length; i++) held[i] = getReadConnection();
+        } finally {
+            for (Connection c : held) if (c != null) c.close();
+        }
+    }
+
+    // close everything (called on exit and when the db path changes)
+    public static void shutdown() {
+        generation++;
+        Pooled r;
+        while ((r = idleReaders.poll()) != null) {
+            r.closeQuietly();
+            openReaders.decrementAndGet();
+        }
+        boolean locked = false;
+        try { locked = writeLock.tryLock(READ_WAIT_MS, TimeUnit.MILLISECONDS); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        // still held: closing it would pull it out from under a running
+        // statement; the holder's release closes it (its gen is stale now)
+        if (!locked) return;
+        try {
+            if (writer != null) {
+                try (Statement st = writer.conn.createStatement()) { st.execute("PRAGMA optimize"); }
+                catch (SQLException ignore) { }
+                writer.closeQuietly();
+                writer = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // open a tuned connection
+    private static Connection open(boolean readOnly) throws SQLException {
+        if (dbPath == null || dbPath.isBlank())
+            throw new SQLException("Database path not set");
+        if (!driverLoaded) {
+            try { Class.forName("org.sqlite.JDBC"); } // load driver once
+            catch (ClassNotFoundException ignore) { }
+            driverLoaded = true;
+        }
+        Properties props = new Properties();
+        if (readOnly) props.setProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+        Connection c = DriverManager.getConnection("jdbc:sqlite:" + dbPath, props);
+        OPENED.increment();
+        try (Statement st = c.createStatement()) {
+            if (!readOnly) st.execute("PRAGMA journal_mode=WAL");
+            for (String p : PRAGMAS) st.execute(p);
+        } catch (SQLException e) {
+            c.close();
+            throw e;
+        }
+        return c;
+    }
+
+    private static void releaseWriter(Pooled w) {
+        try {
+            boolean drop = w.gen != generation; // shutdown() ran while it was held
+            try {
+                if (!w.conn.getAutoCommit()) {
+                    w.conn.rollback(); // caller left a transaction open
+                    w.conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                drop = true;
+            }
+            if (drop) {
+                w.closeQuietly();
+                if (writer == w) writer = null;
+            }
+            w.lastUsed = System.currentTimeMillis();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static Runnable releaseReader(Pooled r) {
+        return () -> {
+            r.lastUsed = System.currentTimeMillis();
+            try {
+                if (!r.conn.getAutoCommit()) {
+                    r.conn.rollback(); // caller left a read transaction open
+                    r.conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                r.closeQuietly();
+                openReaders.decrementAndGet();
+                return;
+            }
+            if (r.gen != generation || !idleReaders.offer(r)) {
+                r.closeQuietly();
+                openReaders.decrementAndGet();
+            }
+        };
+    }
+
+    // handle whose close() gives the connection back instead of closing it
+    private static Connection lease(Pooled p, Runnable release) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionManager.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "close":
+                            if (released.compareAndSet(false, true)) release.run();
+                            return null;
+                        case "isClosed":
+                            if (released.get()) return true;
+                            break;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            if (released.get()) throw new SQLException("Connection already returned to pool");
+                    }
+                    try { return m.invoke(p.conn, args); }
+                    catch (InvocationTargetException e) { throw e.getCause(); }
+                });
+    }
+
+    // pooled connection plus bookkeeping
+    private static final class Pooled {
+        final Connection conn;
+        final int gen;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Pooled(Connection conn, int gen) { this.conn = conn; this.gen = gen; }
+
+        // cheap check always, round-trip only after being idle a while
+        boolean check() {
+            try {
+                if (conn.isClosed()) return false;
+                if (System.currentTimeMillis() - lastUsed < VALIDATE_AFTER_MS) return true;
+                return conn.isValid(1);
+            } catch (SQLException e) { return false; }
+        }
+
+        void closeQuietly() {
+            try { conn.close(); } catch (SQLException ignore) { }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+// many csv files at once: one parser thread per file (a few at a time),
+// validation of row chunks on the fork-join pool, and a single batched
+// writer on the calling thread. The writer takes each file's chunks in
+// order and the files in list order, so the last row for a phone wins
+// exactly as if the files had been imported one after another.
+public class CsvIngest {
+
+    static final int CHUNK_ROWS = 2000;
+    static final int QUEUE_CHUNKS = 8; // per file, bounds memory
+    private static final long POLL_MS = 100;
+
+    // counters of one pipeline stage; nanos are time spent working, not waiting
+    public static final class Stage {
+        public final String name;
+        final AtomicLong rows = new AtomicLong(), bytes = new AtomicLong(), nanos = new AtomicLong();
+
+        Stage(String name) { this.name = name; }
+
+        public long rows() { return rows.get(); }
+        public long nanos() { return nanos.get(); }
+
+        public double rowsPerSec() { return nanos.get() <= 0 ? 0 : rows.get() * 1e9 / nanos.get(); }
+
+        void add(long rows, long bytes, long nanos) {
+            this.rows.addAndGet(rows);
+            this.bytes.addAndGet(bytes);
+            this.nanos.addAndGet(nanos);
+        }
+
+        @Override public String toString() {
+            String s = String.format("%s %,.0f rows/s", name, rowsPerSec());
+            if (bytes.get() > 0) s += String.format(" (%.1f MB/s)", bytes.get() * 1e3 / Math.max(1, nanos.get()));
+            return s;
+        }
+    }
+
+    public static final class Result {
+        public final Stage parse = new Stage("parse"), validate = new Stage("validate"), write = new Stage("write");
+        public long files, total, skipped, added, updated, wallNanos, writerWaitNanos;
+        public boolean cancelled;
+
+        public String summary() {
+            return (cancelled ? "Cancelled | " : "") + "Files: " + files + " | Total: " + total + " | Added: " + added
+                    + " | Updated: " + updated + " | Skipped: " + skipped;
+        }
+
+        // per-stage rates; each is per busy thread, wall rate is end to end
+        public String throughput() {
+            return String.format("%s | %s | %s | wall %,.0f rows/s, writer idle %.0f ms",
+                    parse, validate, write, wallNanos <= 0 ? 0 : total * 1e9 / wallNanos, writerWaitNanos / 1e6);
+        }
+    }
+
+    // one slice of a file: 4 raw cells per row in, valid customers out
+    private static final class Chunk {
+        static final Chunk END = new Chunk(0);
+
+        final String[] cells;
+        int rows, skipped;
+        Customer[] valid;
+        int nvalid;
+
+        Chunk(int capacity) { cells = new String[capacity * 4]; }
+    }
+
+    private final int parsers;
+    private final int batchSize;
+
+    public CsvIngest(int batchSize) {
+        this(batchSize, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public CsvIngest(int batchSize, int parsers) {
+        this.batchSize = batchSize;
+        this.parsers = Math.max(1, parsers);
+    }
+
+    // stands for standard input in a list of paths
+    public static final Path STDIN = Path.of("-");
+
+    // files as given, directories replaced by their *.csv files in name order
+    public static List<Path> expand(List<Path> paths) throws IOException {
+        List<Path> out = new ArrayList<>();
+        for (Path p : paths) {
+            if (!Files.isDirectory(p)) { out.add(p); continue; }
+            List<Path> inDir = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(p, "*.{csv,CSV}")) {
+                for (Path f : ds) if (Files.isRegularFile(f)) inDir.add(f);
+            }
+            inDir.sort(null);
+            out.addAll(inDir);
+        }
+        return out;
+    }
+
+    // onCommit runs on the calling thread after every committed batch
+    public Result run(List<Path> paths, Runnable onCommit, CustomerStore.ImportProgress progress,
+                      BooleanSupplier cancelled) throws IOException, SQLException {
+        List<Path> files = expand(paths);
+        Result r = new Result();
+        r.files = files.size();
+        long start = System.nanoTime(), lastReport = start;
+        long reportEvery = 500_000_000L;
+
+        List<BlockingQueue<CompletableFuture<Chunk>>> queues = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) queues.add(new ArrayBlockingQueue<>(QUEUE_CHUNKS));
+        AtomicBoolean stop = new AtomicBoolean(); // writer is done or gave up, parsers bail out
+        BooleanSupplier stopped = () -> stop.get() || cancelled.getAsBoolean();
+
+        ExecutorService parsePool = Executors.newFixedThreadPool(Math.min(parsers, Math.max(1, files.size())), t -> {
+            Thread th = new Thread(t, "csv-parse");
+            th.setDaemon(true);
+            return th;
+        });
+        CustomerDao.BulkUpsert bulk = CustomerDao.openBulkUpsert(batchSize);
+        try {
+            // submitted in file order, so a file is always parsing before any file after it
+            for (int i = 0; i < files.size(); i++) {
+                Path f = files.get(i);
+                BlockingQueue<CompletableFuture<Chunk>> q = queues.get(i);
+                parsePool.execute(() -> parse(f, q, r, stopped));
+            }
+
+            for (BlockingQueue<CompletableFuture<Chunk>> q : queues) {
+                for (;;) {
+                    long w0 = System.nanoTime();
+                    CompletableFuture<Chunk> next = null;
+                    while (next == null) {
+                        if (cancelled.getAsBoolean()) { r.cancelled = true; break; }
+                        next = q.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                    }
+                    if (r.cancelled) break;
+                    Chunk c = join(next);
+                    r.writerWaitNanos += System.nanoTime() - w0;
+                    if (c == Chunk.END) break;
+
+                    long t0 = System.nanoTime();
+                    r.total += c.rows;
+                    r.skipped += c.skipped;
+                    for (int k = 0; k < c.nvalid; k++) if (bulk.add(c.valid[k])) onCommit.run();
+                    r.write.add(c.nvalid, 0, System.nanoTime() - t0);
+
+                    if (progress != null && t0 - lastReport >= reportEvery) {
+                        progress.update(r.total, r.total * 1e9 / (t0 - start));
+                        lastReport = t0;
+                    }
+                }
+                if (r.cancelled) break;
+            }
+            if (!r.cancelled) {
+                long t0 = System.nanoTime();
+                bulk.close(); // commits the last batch
+                r.write.add(0, 0, System.nanoTime() - t0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            r.cancelled = true;
+        } catch (IOException | SQLException | RuntimeException e) {
+            try { bulk.rollback(); }
+            catch (SQLException s) { e.addSuppressed(s); }
+            throw e;
+        } finally {
+            stop.set(true);
+            parsePool.shutdownNow();
+        }
+        // cancelled: the rows still buffered are not committed; batches
+        // committed before stay and are what the counts report
+        if (r.cancelled) bulk.rollback();
+        onCommit.run();
+        r.added = bulk.added();
+        r.updated = bulk.written() - bulk.added();
+        r.wallNanos = System.nanoTime() - start;
+        if (progress != null) progress.update(r.total, r.total * 1e9 / Math.max(1, r.wallNanos));
+        return r;
+    }
+
+    // parser thread: cut the file into chunks, hand each to the fork-join pool
+    // for validation, queue the futures in order; END or an error closes the file
+    private static void parse(Path file, BlockingQueue<CompletableFuture<Chunk>> q, Result r, BooleanSupplier stopped) {
+        try (CsvReader csv = file.equals(STDIN) ? new CsvReader(Channels.newChannel(System.in)) : CsvReader.open(file)) {
+            boolean first = true;
+            Chunk c = new Chunk(CHUNK_ROWS);
+            long t0 = System.nanoTime(), bytes0 = 0;
+            while (csv.next()) {
+                if (first && !csv.isBlank()) {
+                    first = false;
+                    if (CustomerStore.isHeader(csv)) continue;
+                }
+                c.rows++;
+                if (csv.fields() == 4) {
+                    int at = (c.rows - 1) * 4;
+                    for (int i = 0; i < 4; i++) c.cells[at + i] = csv.get(i);
+                } else {
+                    c.skipped++; // also blank lines; still counts toward a full chunk
+                }
+                if (c.rows < CHUNK_ROWS) continue;
+
+                long b = csv.bytesRead();
+                r.parse.add(c.rows, b - bytes0, System.nanoTime() - t0);
+                bytes0 = b;
+                if (!offer(q, validateAsync(c, r), stopped)) return;
+                c = new Chunk(CHUNK_ROWS);
+                t0 = System.nanoTime();
+            }
+            r.parse.add(c.rows, csv.bytesRead() - bytes0, System.nanoTime() - t0);
+            if (c.rows > 0 && !offer(q, validateAsync(c, r), stopped)) return;
+            offer(q, CompletableFuture.completedFuture(Chunk.END), stopped);
+        } catch (IOException | RuntimeException e) {
+            offer(q, CompletableFuture.failedFuture(new IOException(file.getFileName() + ": " + e.getMessage(), e)), stopped);
+        }
+    }
+
+    private static CompletableFuture<Chunk> validateAsync(Chunk c, Result r) {
+        return CompletableFuture.supplyAsync(() -> {
+            long t0 = System.nanoTime();
+            c.valid = new Customer[c.rows];
+            for (int k = 0, at = 0; k < c.rows; k++, at += 4) {
+                if (c.cells[at] == null) continue; // counted as skipped while parsing
+                Customer v = CustomerStore.validRow(c.cells[at], c.cells[at + 1], c.cells[at + 2], c.cells[at + 3]);
+                if (v == null) c.skipped++;
+                else c.valid[c.nvalid++] = v;
+            }
+            r.validate.add(c.rows, 0, System.nanoTime() - t0);
+            return c;
+        }, ForkJoinPool.commonPool());
+    }
+
+    private static boolean offer(BlockingQueue<CompletableFuture<Chunk>> q, CompletableFuture<Chunk> f,
+                                 BooleanSupplier stopped) {
+        try {
+            while (!q.offer(f, POLL_MS, TimeUnit.MILLISECONDS)) if (stopped.getAsBoolean()) return false;
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static Chunk join(CompletableFuture<Chunk> f) throws IOException {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+}
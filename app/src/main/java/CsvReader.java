@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// RFC 4180 record reader over UTF-8 bytes: quoted commas and line breaks,
+// "" escapes, CRLF or LF; one record at a time into reused buffers
+public class CsvReader implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER = 1 << 16;
+
+    private static final int FIELD_START = 0, UNQUOTED = 1, QUOTED = 2, QUOTE_IN_QUOTED = 3;
+
+    private final ReadableByteChannel channel; // null when reading a mapping
+    private final ByteBuffer source;           // channel buffer or the mapping
+    private final byte[] in;
+    private int pos, lim;
+    private long consumed;
+    private boolean skipLf;
+
+    // current record: unescaped field bytes back to back, ends[i] = end of field i
+    private byte[] rec = new byte[256];
+    private int[] ends = new int[8];
+    private int used, nfields;
+    private long records;
+
+    public CsvReader(ReadableByteChannel channel) { this(channel, DEFAULT_BUFFER); }
+
+    public CsvReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.in = new byte[bufferSize];
+        this.source = ByteBuffer.wrap(in);
+    }
+
+    private CsvReader(MappedByteBuffer map) {
+        this.channel = null;
+        this.source = map;
+        this.in = new byte[DEFAULT_BUFFER];
+    }
+
+    public static CsvReader open(Path path) throws IOException {
+        return new CsvReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // whole file mapped read-only (files up to 2 GB); no read() calls at all
+    public static CsvReader map(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CsvReader(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    // advance to the next record; false at end of input
+    public boolean next() throws IOException {
+        used = 0;
+        nfields = 0;
+        int state = FIELD_START;
+        boolean started = false;
+        for (;;) {
+            if (pos == lim && !fill()) {
+                if (!started) return false;
+                endField(); // last record without a line break
+                records++;
+                return true;
+            }
+            if (skipLf) {
+                skipLf = false;
+                if (in[pos] == '\n') { pos++; continue; }
+            }
+            started = true;
+            byte b = 0;
+            switch (state) {
+                case FIELD_START:
+                    if (in[pos] == '"') { pos++; state = QUOTED; break; }
+                    state = UNQUOTED;
+                    // fall through
+                case UNQUOTED: {
+                    // copy up to the next delimiter in one go
+                    int s = pos;
+                    while (pos < lim && (b = in[pos]) != ',' && b != '\n' && b != '\r') pos++;
+                    put(s, pos - s);
+                    if (pos == lim) break; // field continues in the next chunk
+                    pos++;
+                    if (b == ',') { endField(); state = FIELD_START; }
+                    else { skipLf = b == '\r'; endField(); records++; return true; }
+                    break;
+                }
+                case QUOTED: {
+                    int s = pos;
+                    while (pos < lim && in[pos] != '"') pos++;
+                    put(s, pos - s);
+                    if (pos == lim) break;
+                    pos++;
+                    state = QUOTE_IN_QUOTED;
+                    break;
+                }
+                default: // QUOTE_IN_QUOTED: "" is a quote, anything else closed the field
+                    b = in[pos++];
+                    if (b == '"') { put(b); state = QUOTED; }
+                    else if (b == ',') { endField(); state = FIELD_START; }
+                    else if (b == '\n' || b == '\r') { skipLf = b == '\r'; endField(); records++; return true; }
+                    else { put(b); state = UNQUOTED; } // stray text after the closing quote: keep it
+            }
+        }
+    }
+
+    public int fields() { return nfields; }
+
+    // a line with nothing on it
+    public boolean isBlank() { return nfields == 1 && used == 0; }
+
+    public String get(int i) {
+        int s = start(i);
+        return new String(rec, s, ends[i] - s, StandardCharsets.UTF_8);
+    }
+
+    // raw field bytes without copying: bytes()[start(i) .. end(i))
+    public byte[] bytes() { return rec; }
+    public int start(int i) { return i == 0 ? 0 : ends[i - 1]; }
+    public int end(int i) { return ends[i]; }
+
+    // records returned so far, including blank ones
+    public long records() { return records; }
+
+    // input bytes consumed so far
+    public long bytesRead() { return consumed - (lim - pos); }
+
+    @Override public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        if (channel == null) {
+            int n = Math.min(in.length, source.remaining());
+            if (n == 0) return false;
+            source.get(in, 0, n);
+            lim = n;
+        } else {
+            source.clear();
+            int n;
+            do { n = channel.read(source); } while (n == 0);
+            if (n < 0) return false;
+            lim = n;
+        }
+        pos = 0;
+        consumed += lim;
+        return true;
+    }
+
+    private void put(byte b) {
+        if (used == rec.length) rec = Arrays.copyOf(rec, used * 2);
+        rec[used++] = b;
+    }
+
+    private void put(int from, int len) {
+        if (used + len > rec.length) rec = Arrays.copyOf(rec, Math.max(rec.length * 2, used + len));
+        System.arraycopy(in, from, rec, used, len);
+        used += len;
+    }
+
+    private void endField() {
+        if (nfields == ends.length) ends = Arrays.copyOf(ends, nfields * 2);
+        ends[nfields++] = used;
+    }
+}
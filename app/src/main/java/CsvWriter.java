@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// RFC 4180 writer over raw UTF-8 bytes; one reusable buffer, no per-row strings
+public class CsvWriter implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER = 1 << 20;
+
+    private final OutputStream out;
+    private final byte[] buf;
+    private int pos;
+    private boolean rowStarted;
+    private long bytes;
+
+    public CsvWriter(OutputStream out) { this(out, DEFAULT_BUFFER); }
+
+    public CsvWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buf = new byte[bufferSize];
+    }
+
+    // one field; quoted only when it holds a comma, quote or line break
+    public void field(byte[] v) throws IOException {
+        if (rowStarted) put((byte) ',');
+        rowStarted = true;
+        if (v == null || v.length == 0) return;
+        if (!needsQuotes(v)) { put(v, 0, v.length); return; }
+        put((byte) '"');
+        int from = 0;
+        for (int i = 0; i < v.length; i++) {
+            if (v[i] == '"') {
+                put(v, from, i + 1 - from);
+                put((byte) '"'); // "" escapes a quote
+                from = i + 1;
+            }
+        }
+        put(v, from, v.length - from);
+        put((byte) '"');
+    }
+
+    public void field(String v) throws IOException {
+        field(v == null ? null : v.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void endRow() throws IOException {
+        put((byte) '\n');
+        rowStarted = false;
+    }
+
+    // bytes produced so far (before any compression below this writer)
+    public long bytesWritten() { return bytes + pos; }
+
+    public void flush() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            bytes += pos;
+            pos = 0;
+        }
+        out.flush();
+    }
+
+    @Override public void close() throws IOException {
+        try { flush(); }
+        finally { out.close(); }
+    }
+
+    private static boolean needsQuotes(byte[] v) {
+        for (byte b : v) if (b == ',' || b == '"' || b == '\n' || b == '\r') return true;
+        return false;
+    }
+
+    private void put(byte b) throws IOException {
+        if (pos == buf.length) drain();
+        buf[pos++] = b;
+    }
+
+    private void put(byte[] v, int off, int len) throws IOException {
+        while (len > 0) {
+            if (pos == buf.length) drain();
+            int n = Math.min(len, buf.length - pos);
+            System.arraycopy(v, off, buf, pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buf, 0, pos);
+        bytes += pos;
+        pos = 0;
+    }
+}
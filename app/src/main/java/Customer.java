@@ -0,0 +1,31 @@
+import java.util.Objects;
+
+// immutable: safe to cache and to share between threads
+public final class Customer {
+    private final String phoneNumber;
+    private final String name;
+    private final String address;
+    private final String email;
+
+    public Customer(String phoneNumber, String name, String address, String email) {
+        this.phoneNumber = phoneNumber;
+        this.name = name;
+        this.address = address;
+        this.email = email;
+    }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+    public String getEmail() { return email; }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Customer)) return false;
+        Customer c = (Customer) o;
+        return Objects.equals(phoneNumber, c.phoneNumber) && Objects.equals(name, c.name)
+                && Objects.equals(address, c.address) && Objects.equals(email, c.email);
+    }
+
+    @Override public int hashCode() { return Objects.hash(phoneNumber, name, address, email); }
+}
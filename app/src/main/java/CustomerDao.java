@@ -0,0 +1,493 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class CustomerDao {
+
+    // latency per statement and rows read back, see Metrics
+    private static final Metrics.Timer T_INSERT = Metrics.timer("dao.insert"), T_UPDATE = Metrics.timer("dao.update"),
+            T_DELETE = Metrics.timer("dao.delete"), T_FIND = Metrics.timer("dao.find"), T_COUNT = Metrics.timer("dao.count"),
+            T_PAGE = Metrics.timer("dao.page"), T_SEARCH = Metrics.timer("dao.search"),
+            T_LIST_ALL = Metrics.timer("dao.listAll"), T_FOR_EACH = Metrics.timer("dao.forEach"),
+            T_EXPORT = Metrics.timer("dao.exportRows"), T_BATCH = Metrics.timer("dao.bulk.commit"),
+            T_APPLY = Metrics.timer("dao.applyAll");
+    private static final Metrics.Counter ROWS_READ = Metrics.counter("dao.rows.read"),
+            ROWS_WRITTEN = Metrics.counter("dao.rows.bulkWritten");
+
+    // create or upgrade the schema, see SchemaMigrations
+    public static void ensureTable() throws SQLException {
+        try (Connection c = ConnectionManager.getWriteConnection()) {
+            SchemaMigrations.migrate(c);
+        }
+    }
+
+    // full-text mirror of name/address/email, kept in sync by triggers
+    static void ensureSearchTable(Statement st) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = st.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type='table' AND name='customers_fts'")) {
+            exists = rs.next();
+        }
+        if (exists) return;
+        st.executeUpdate("""
+            CREATE VIRTUAL TABLE customers_fts USING fts5(
+              name, address, email,
+              content='customers', content_rowid='rowid',
+              tokenize='unicode61 remove_diacritics 2'
+            )
+        """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_fts_ai AFTER INSERT ON customers BEGIN
+              INSERT INTO customers_fts(rowid, name, address, email)
+              VALUES (new.rowid, new.name, new.address, new.email);
+            END
+        """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_fts_ad AFTER DELETE ON customers BEGIN
+              INSERT INTO customers_fts(customers_fts, rowid, name, address, email)
+              VALUES ('delete', old.rowid, old.name, old.address, old.email);
+            END
+        """);
+        st.executeUpdate("""
+            CREATE TRIGGER IF NOT EXISTS customers_fts_au AFTER UPDATE ON customers BEGIN
+              INSERT INTO customers_fts(customers_fts, rowid, name, address, email)
+              VALUES ('delete', old.rowid, old.name, old.address, old.email);
+              INSERT INTO customers_fts(rowid, name, address, email)
+              VALUES (new.rowid, new.name, new.address, new.email);
+            END
+        """);
+        st.executeUpdate("INSERT INTO customers_fts(customers_fts) VALUES ('rebuild')"); // index existing rows
+    }
+
+    // ranked full-text search; every word must match as a prefix
+    public static List<Customer> search(String query, int limit, int offset) throws SQLException {
+        String match = ftsQuery(query);
+        if (match.isEmpty()) return new ArrayList<>();
+        String sql = """
+            SELECT c.phone, c.name, c.address, c.email
+            FROM customers_fts f JOIN customers c ON c.rowid = f.rowid
+            WHERE customers_fts MATCH ?
+            ORDER BY f.rank LIMIT ? OFFSET ?
+        """;
+        List<Customer> out = new ArrayList<>(Math.min(limit, 256));
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, match);
+            ps.setInt(2, limit);
+            ps.setInt(3, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(read(rs));
+            }
+        } finally {
+            T_SEARCH.since(t0);
+        }
+        return out;
+    }
+
+    // user text -> "word1"* "word2"*, quoted so FTS syntax in the input is inert
+    static String ftsQuery(String query) {
+        if (query == null) return "";
+        StringBuilder sb = new StringBuilder();
+        for (String w : query.trim().split("\\s+")) {
+            if (w.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(w.replace("\"", "\"\"")).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    // insert (ignore on dup)
+    public static boolean insert(Customer c) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO customers(phone,name,address,email) VALUES(?,?,?,?)";
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getWriteConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, c.getPhoneNumber());
+            ps.setString(2, c.getName());
+            ps.setString(3, c.getAddress());
+            ps.setString(4, c.getEmail());
+            return ps.executeUpdate() > 0;
+        } finally {
+            T_INSERT.since(t0);
+        }
+    }
+
+    // update
+    public static boolean update(Customer c) throws SQLException {
+        String sql = "UPDATE customers SET name=?, address=?, email=? WHERE phone=?";
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getWriteConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, c.getName());
+            ps.setString(2, c.getAddress());
+            ps.setString(3, c.getEmail());
+            ps.setString(4, c.getPhoneNumber());
+            return ps.executeUpdate() > 0;
+        } finally {
+            T_UPDATE.since(t0);
+        }
+    }
+
+    // delete
+    public static boolean delete(String phone) throws SQLException {
+        String sql = "DELETE FROM customers WHERE phone=?";
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getWriteConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, phone);
+            return ps.executeUpdate() > 0;
+        } finally {
+            T_DELETE.since(t0);
+        }
+    }
+
+    // find by phone
+    public static Customer find(String phone) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers WHERE phone=?";
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, phone);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? read(rs) : null;
+            }
+        } finally {
+            T_FIND.since(t0);
+        }
+    }
+
+    // customers with this email, ignoring case (customers_by_email)
+    public static List<Customer> findByEmail(String email) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers WHERE email = ? COLLATE NOCASE ORDER BY phone";
+        List<Customer> out = new ArrayList<>();
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(read(rs));
+            }
+        } finally {
+            T_FIND.since(t0);
+        }
+        return out;
+    }
+
+    // row count
+    public static long count() throws SQLException { return count(null); }
+
+    // row count matching a filter (case-insensitive substring on any column)
+    public static long count(String filter) throws SQLException {
+        String sql = "SELECT count(*) FROM customers" + where(filter, null);
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            bind(ps, 1, filter, null, null);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } finally {
+            T_COUNT.since(t0);
+        }
+    }
+
+    // keyset page: rows sorted after (name, phone), null key = from the start
+    public static List<Customer> pageAfter(String filter, String name, String phone, int limit) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers"
+                + where(filter, name == null ? null : "(name, phone) > (?, ?)")
+                + " ORDER BY name, phone LIMIT ?";
+        return page(sql, filter, name, phone, limit, -1);
+    }
+
+    // keyset page: rows sorted before (name, phone), returned in ascending order
+    public static List<Customer> pageBefore(String filter, String name, String phone, int limit) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers"
+                + where(filter, "(name, phone) < (?, ?)")
+                + " ORDER BY name DESC, phone DESC LIMIT ?";
+        List<Customer> out = page(sql, filter, name, phone, limit, -1);
+        Collections.reverse(out);
+        return out;
+    }
+
+    // offset page, only used to jump far from the rows already loaded
+    public static List<Customer> pageAt(String filter, int offset, int limit) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers"
+                + where(filter, null)
+                + " ORDER BY name, phone LIMIT ? OFFSET ?";
+        return page(sql, filter, null, null, limit, offset);
+    }
+
+    private static List<Customer> page(String sql, String filter, String name, String phone,
+                                       int limit, int offset) throws SQLException {
+        List<Customer> out = new ArrayList<>(limit);
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = bind(ps, 1, filter, name, phone);
+            ps.setInt(i++, limit);
+            if (offset >= 0) ps.setInt(i, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(read(rs));
+            }
+        } finally {
+            T_PAGE.since(t0);
+        }
+        return out;
+    }
+
+    // filter uses instr() so user text is never parsed as a pattern
+    private static String where(String filter, String keyset) {
+        boolean f = filter != null && !filter.isEmpty();
+        if (!f && keyset == null) return "";
+        StringBuilder sb = new StringBuilder(" WHERE ");
+        if (f) sb.append("(instr(phone, ?) > 0 OR instr(lower(name), ?) > 0 OR instr(lower(address), ?) > 0"
+                + " OR instr(lower(coalesce(email, '')), ?) > 0)");
+        if (f && keyset != null) sb.append(" AND ");
+        if (keyset != null) sb.append(keyset);
+        return sb.toString();
+    }
+
+    private static int bind(PreparedStatement ps, int i, String filter, String name, String phone) throws SQLException {
+        if (filter != null && !filter.isEmpty()) {
+            String f = filter.toLowerCase(Locale.ROOT);
+            for (int k = 0; k < 4; k++) ps.setString(i++, f);
+        }
+        if (name != null) {
+            ps.setString(i++, name);
+            ps.setString(i++, phone);
+        }
+        return i;
+    }
+
+    private static Customer read(ResultSet rs) throws SQLException {
+        ROWS_READ.increment();
+        return new Customer(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    }
+
+    // bulk upsert (holds the writer until closed)
+    public static BulkUpsert openBulkUpsert(int batchSize) throws SQLException {
+        return new BulkUpsert(batchSize);
+    }
+
+    // normalized, validated writes in one transaction: one commit (one
+    // fsync) for all of them. Outcomes are in order; on an error nothing is
+    // committed and the exception is thrown.
+    public static CustomerWrite.Outcome[] applyAll(List<CustomerWrite> writes) throws SQLException {
+        CustomerWrite.Outcome[] out = new CustomerWrite.Outcome[writes.size()];
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getWriteConnection();
+             PreparedStatement ins = cn.prepareStatement("INSERT OR IGNORE INTO customers(phone,name,address,email) VALUES(?,?,?,?)");
+             PreparedStatement upd = cn.prepareStatement("UPDATE customers SET name=?, address=?, email=? WHERE phone=?");
+             PreparedStatement del = cn.prepareStatement("DELETE FROM customers WHERE phone=?")) {
+            cn.setAutoCommit(false);
+            for (int i = 0; i < out.length; i++) {
+                CustomerWrite w = writes.get(i);
+                Customer c = w.customer;
+                switch (w.kind) {
+                    case INSERT:
+                        out[i] = insert(ins, c) ? CustomerWrite.Outcome.INSERTED : CustomerWrite.Outcome.EXISTS;
+                        break;
+                    case UPDATE:
+                        out[i] = update(upd, c) ? CustomerWrite.Outcome.UPDATED : CustomerWrite.Outcome.NOT_FOUND;
+                        break;
+                    case UPSERT:
+                        out[i] = insert(ins, c) ? CustomerWrite.Outcome.INSERTED
+                                : update(upd, c) ? CustomerWrite.Outcome.UPDATED : CustomerWrite.Outcome.FAILED;
+                        break;
+                    case DELETE:
+                        del.setString(1, w.phone);
+                        out[i] = del.executeUpdate() > 0 ? CustomerWrite.Outcome.DELETED : CustomerWrite.Outcome.NOT_FOUND;
+                        break;
+                }
+            }
+            cn.commit(); // the pool rolls back and restores autocommit if we never get here
+            cn.setAutoCommit(true);
+        } finally {
+            T_APPLY.since(t0);
+        }
+        return out;
+    }
+
+    private static boolean insert(PreparedStatement ps, Customer c) throws SQLException {
+        ps.setString(1, c.getPhoneNumber());
+        ps.setString(2, c.getName());
+        ps.setString(3, c.getAddress());
+        ps.setString(4, c.getEmail());
+        return ps.executeUpdate() > 0;
+    }
+
+    private static boolean update(PreparedStatement ps, Customer c) throws SQLException {
+        ps.setString(1, c.getName());
+        ps.setString(2, c.getAddress());
+        ps.setString(3, c.getEmail());
+        ps.setString(4, c.getPhoneNumber());
+        return ps.executeUpdate() > 0;
+    }
+
+    // reuses one prepared upsert, commits every batchSize rows
+    public static class BulkUpsert implements AutoCloseable {
+        private static final String SQL = """
+                INSERT INTO customers(phone,name,address,email) VALUES(?,?,?,?)
+                ON CONFLICT(phone) DO UPDATE SET
+                  name=excluded.name, address=excluded.address, email=excluded.email
+                """;
+
+        private final Connection cn;
+        private final PreparedStatement ps;
+        private final int batchSize;
+        private final long countBefore;
+        private int pending;
+        private long written;
+        private long added = -1;
+        private boolean closed;
+
+        private BulkUpsert(int batchSize) throws SQLException {
+            this.batchSize = Math.max(1, batchSize);
+            cn = ConnectionManager.getWriteConnection();
+            try {
+                countBefore = countRows(cn);
+                cn.setAutoCommit(false);
+                ps = cn.prepareStatement(SQL);
+            } catch (SQLException e) {
+                cn.close();
+                throw e;
+            }
+        }
+
+        // queue one row, returns true when a batch was committed
+        public boolean add(Customer c) throws SQLException {
+            ps.setString(1, c.getPhoneNumber());
+            ps.setString(2, c.getName());
+            ps.setString(3, c.getAddress());
+            ps.setString(4, c.getEmail());
+            ps.addBatch();
+            if (++pending < batchSize) return false;
+            flush();
+            return true;
+        }
+
+        // run and commit what is queued
+        public void flush() throws SQLException {
+            if (pending == 0) return;
+            long t0 = System.nanoTime();
+            ps.executeBatch();
+            cn.commit();
+            T_BATCH.since(t0);
+            ROWS_WRITTEN.add(pending);
+            written += pending;
+            pending = 0;
+        }
+
+        public long written() { return written; }
+
+        // rows that did not exist before (valid after close or rollback)
+        public long added() { return added; }
+
+        // flush the tail, then work out inserted vs updated from the row count
+        @Override public void close() throws SQLException {
+            end(true);
+        }
+
+        // drop the rows not committed yet and close; batches already
+        // committed stay, written() and added() count only those
+        public void rollback() throws SQLException {
+            end(false);
+        }
+
+        private void end(boolean commit) throws SQLException {
+            if (closed) return;
+            closed = true;
+            try {
+                if (commit) flush();
+                else {
+                    ps.clearBatch();
+                    cn.rollback();
+                    pending = 0;
+                }
+                added = countRows(cn) - countBefore;
+            } finally {
+                try { ps.close(); }
+                finally { cn.close(); } // pool rolls back anything left and restores autocommit
+            }
+        }
+
+        private static long countRows(Connection cn) throws SQLException {
+            try (Statement st = cn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT count(*) FROM customers")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    // list all
+    public static List<Customer> listAll() throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers ORDER BY name, phone";
+        List<Customer> out = new ArrayList<>();
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(read(rs));
+        } finally {
+            T_LIST_ALL.since(t0);
+        }
+        return out;
+    }
+
+    // stream every row in (name, phone) order without building a list
+    public static void forEach(Consumer<Customer> action) throws SQLException {
+        String sql = "SELECT phone,name,address,email FROM customers ORDER BY name, phone";
+        long t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setFetchSize(1000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) action.accept(read(rs));
+            }
+        } finally {
+            T_FOR_EACH.since(t0);
+        }
+    }
+
+    // raw UTF-8 columns of one row (email may be null); return false to stop
+    public interface RowSink {
+        boolean row(byte[] phone, byte[] name, byte[] address, byte[] email) throws IOException;
+    }
+
+    // forward-only scan in phone (primary key) order, no sort and no Customer objects
+    public static long exportRows(int fetchSize, RowSink sink) throws SQLException, IOException {
+        return exportRows(fetchSize, seq -> { }, sink);
+    }
+
+    // the same; atSeq first gets the change log seq the rows are consistent with
+    public static long exportRows(int fetchSize, LongConsumer atSeq, RowSink sink) throws SQLException, IOException {
+        String sql = "SELECT phone,name,address,email FROM customers ORDER BY phone";
+        long n = 0, t0 = System.nanoTime();
+        try (Connection cn = ConnectionManager.getReadConnection();
+             PreparedStatement ps = cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            cn.setAutoCommit(false); // one snapshot for the seq and the rows
+            try {
+                atSeq.accept(ChangeLog.head(cn));
+                ps.setFetchSize(fetchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        n++;
+                        if (!sink.row(rs.getBytes(1), rs.getBytes(2), rs.getBytes(3), rs.getBytes(4))) break;
+                    }
+                }
+            } finally {
+                cn.setAutoCommit(true); // ends the read transaction; the pool resets it if this throws
+            }
+        } finally {
+            T_EXPORT.since(t0);
+            ROWS_READ.add(n);
+        }
+        return n;
+    }
+}
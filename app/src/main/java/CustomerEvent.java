@@ -0,0 +1,23 @@
+// change notification from CustomerStore
+public class CustomerEvent {
+
+    public enum Type { INSERTED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Customer customer;
+    private final Customer previous;
+
+    public CustomerEvent(Type type, Customer customer, Customer previous) {
+        this.type = type;
+        this.customer = customer;
+        this.previous = previous;
+    }
+
+    public Type getType() { return type; }
+
+    // row as written (as it was, for DELETED)
+    public Customer getCustomer() { return customer; }
+
+    // row before an UPDATED, null otherwise or if unknown
+    public Customer getPrevious() { return previous; }
+}
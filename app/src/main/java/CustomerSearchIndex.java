@@ -0,0 +1,366 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// in-memory type-ahead index over name/address/email and phone prefixes;
+// kept current from CustomerStore events, safe to query from any thread
+public class CustomerSearchIndex {
+
+    // scan in table order when the rarest gram covers more than 1/N of the rows
+    private static final int ORDER_SCAN_RATIO = 50;
+
+    // same order as the table
+    private static final Comparator<Customer> ORDER =
+            Comparator.comparing(Customer::getName).thenComparing(Customer::getPhoneNumber);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // id -> row, the same objects as the view it was loaded from; ids are
+    // reused after deletes
+    private Customer[] rows = new Customer[1024];
+
+    // matching text, lower-cased: rows as loaded are matched in place in a
+    // columnar copy (textRow = its row, -1 if none); rows written since
+    // the load keep a string
+    private CustomerSnapshot text;
+    private int[] textRow = new int[1024];
+    private String[] edited = new String[1024];
+    private final IntList freeIds = new IntList();
+
+    // phone -> id, sorted so a digit prefix is one subMap() walk
+    private final TreeMap<String, Integer> phones = new TreeMap<>();
+
+    // ids in (name, phone) order, for short queries scanned in table order
+    private final IntList order = new IntList();
+
+    // lower-cased trigram of name/address/email -> sorted ids
+    private final HashMap<Long, IntList> grams = new HashMap<>();
+
+    // while a load is running: phones deleted meanwhile must not come back
+    private Set<String> loadTombstones;
+    private volatile boolean ready;
+    private final Object loadLock = new Object();
+
+    public boolean isReady() { return ready; }
+
+    public int size() {
+        lock.readLock().lock();
+        try { return phones.size(); }
+        finally { lock.readLock().unlock(); }
+    }
+
+    // (re)build from the store's view; events keep flowing while it runs
+    public boolean load(CustomerStore store) {
+        synchronized (loadLock) { return reload(store); }
+    }
+
+    private boolean reload(CustomerStore store) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rows = new Customer[1024];
+            textRow = new int[1024];
+            edited = new String[1024];
+            text = null;
+            freeIds.clear();
+            phones.clear();
+            order.clear();
+            grams.clear();
+            loadTombstones = new HashSet<>();
+        } finally { lock.writeLock().unlock(); }
+
+        CustomerView v = store.view();
+        boolean ok = v != null;
+        if (ok) {
+            CustomerSnapshot t = lowerCased(v);
+            lock.writeLock().lock();
+            try { text = t; }
+            finally { lock.writeLock().unlock(); }
+        }
+        // in table order, so nearly every row goes on the end of order
+        if (ok) v.forEach(c -> {
+            lock.writeLock().lock();
+            try {
+                if (!phones.containsKey(c.getPhoneNumber()) && !loadTombstones.contains(c.getPhoneNumber())) add(c, true);
+            } finally { lock.writeLock().unlock(); }
+        });
+
+        lock.writeLock().lock();
+        try {
+            loadTombstones = null;
+            ready = ok;
+        } finally { lock.writeLock().unlock(); }
+        return ok;
+    }
+
+    // store listener
+    public void apply(CustomerEvent e) {
+        Customer c = e.getCustomer();
+        lock.writeLock().lock();
+        try {
+            switch (e.getType()) {
+                case INSERTED:
+                case UPDATED:
+                    Integer id = phones.get(c.getPhoneNumber());
+                    if (id == null) add(c, false);
+                    else replace(id, c);
+                    break;
+                case DELETED:
+                    remove(c.getPhoneNumber());
+                    if (loadTombstones != null) loadTombstones.add(c.getPhoneNumber());
+                    break;
+            }
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    // digits only -> phone prefix (phone order); otherwise every word must
+    // appear in name, address or email (table order); at most limit rows
+    public List<Customer> search(String query, int limit) {
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty() || limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            if (isPhoneQuery(q)) return phonePrefix(CustomerStore.normalizePhone(q), limit);
+            return text(q.split("\\s+"), limit);
+        } finally { lock.readLock().unlock(); }
+    }
+
+    private List<Customer> phonePrefix(String digits, int limit) {
+        List<Customer> out = new ArrayList<>(Math.min(limit, 256));
+        for (int id : phones.subMap(digits, digits + ":").values()) { // ':' sorts right after '9'
+            out.add(row(id));
+            if (out.size() == limit) break;
+        }
+        return out;
+    }
+
+    private List<Customer> text(String[] words, int limit) {
+        byte[][] needles = new byte[words.length][];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = words[i].toLowerCase(Locale.ROOT);
+            needles[i] = words[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        // postings of every trigram in the query, smallest first
+        List<IntList> lists = new ArrayList<>();
+        for (String w : words) {
+            for (int i = 0; i + 3 <= w.length(); i++) {
+                IntList p = grams.get(gram(w, i));
+                if (p == null) return List.of();
+                lists.add(p);
+            }
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        List<Customer> out = new ArrayList<>(Math.min(limit, 256));
+        if (lists.isEmpty() || lists.get(0).size > order.size / ORDER_SCAN_RATIO) {
+            // short words or common grams: AND the postings into a bitmap,
+            // then walk table order and stop at limit
+            BitSet hits = null;
+            for (IntList p : lists) {
+                BitSet b = new BitSet(rows.length);
+                for (int i = 0; i < p.size; i++) b.set(p.data[i]);
+                if (hits == null) hits = b;
+                else hits.and(b);
+            }
+            for (int i = 0; i < order.size && out.size() < limit; i++) {
+                int id = order.data[i];
+                if ((hits == null || hits.get(id)) && matchesAll(id, words, needles)) out.add(row(id));
+            }
+            return out;
+        }
+
+        // rare grams: intersect, verify, then sort the few hits
+        IntList cand = lists.get(0);
+        for (int i = 0; i < cand.size; i++) {
+            int id = cand.data[i];
+            if (inAll(lists, 1, id) && matchesAll(id, words, needles)) out.add(row(id));
+        }
+        out.sort(ORDER);
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    private static boolean inAll(List<IntList> lists, int from, int id) {
+        for (int i = from; i < lists.size(); i++)
+            if (Arrays.binarySearch(lists.get(i).data, 0, lists.get(i).size, id) < 0) return false;
+        return true;
+    }
+
+    private boolean matchesAll(int id, String[] words, byte[][] needles) {
+        int r = textRow[id];
+        if (r >= 0) {
+            for (byte[] n : needles) if (!text.contains(r, n)) return false;
+            return true;
+        }
+        String hay = edited[id];
+        for (String w : words) if (hay.indexOf(w) < 0) return false;
+        return true;
+    }
+
+    private static boolean isPhoneQuery(String q) {
+        boolean digit = false;
+        for (int i = 0; i < q.length(); i++) {
+            char ch = q.charAt(i);
+            if (ch >= '0' && ch <= '9') digit = true;
+            else if ("()-. +".indexOf(ch) < 0) return false;
+        }
+        return digit;
+    }
+
+    // caller holds a lock
+    private Customer row(int id) { return rows[id]; }
+
+    // caller holds the write lock; loaded rows match in the columnar copy
+    private void add(Customer c, boolean loaded) {
+        int id = freeIds.size > 0 ? freeIds.removeLast() : phones.size();
+        if (id >= rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            textRow = Arrays.copyOf(textRow, rows.length);
+            edited = Arrays.copyOf(edited, rows.length);
+        }
+        rows[id] = c;
+        String t = textOf(c);
+        setText(id, loaded ? text.indexOf(c.getPhoneNumber()) : -1, t);
+        phones.put(c.getPhoneNumber(), id);
+        boolean last = order.size == 0 || ORDER.compare(row(order.data[order.size - 1]), c) < 0;
+        order.insert(last ? order.size : orderSlot(c), id);
+        for (long g : gramsOf(t)) grams.computeIfAbsent(g, k -> new IntList()).addSorted(id);
+    }
+
+    private void setText(int id, int r, String t) {
+        textRow[id] = r;
+        edited[id] = r >= 0 ? null : t;
+    }
+
+    // touch only the grams that changed; common ones stay put
+    private void replace(int id, Customer c) {
+        Customer old = row(id);
+        if (ORDER.compare(old, c) != 0) {
+            order.removeAt(slotOf(id));
+            rows[id] = c;
+            order.insert(orderSlot(c), id);
+        }
+        rows[id] = c;
+        String t = textOf(c);
+        setText(id, -1, t);
+        Set<Long> before = gramsOf(textOf(old));
+        Set<Long> after = gramsOf(t);
+        for (long g : before) {
+            if (after.contains(g)) continue;
+            IntList p = grams.get(g);
+            if (p != null && p.removeSorted(id) && p.size == 0) grams.remove(g);
+        }
+        for (long g : after)
+            if (!before.contains(g)) grams.computeIfAbsent(g, k -> new IntList()).addSorted(id);
+    }
+
+    private void remove(String phone) {
+        Integer id = phones.remove(phone);
+        if (id == null) return;
+        order.removeAt(slotOf(id));
+        for (long g : gramsOf(textOf(row(id)))) {
+            IntList p = grams.get(g);
+            if (p != null && p.removeSorted(id) && p.size == 0) grams.remove(g);
+        }
+        rows[id] = null;
+        setText(id, -1, null);
+        freeIds.add(id);
+    }
+
+    private static String textOf(Customer c) {
+        return (CustomerStore.safe(c.getName()) + '\n' + CustomerStore.safe(c.getAddress()) + '\n'
+                + CustomerStore.safe(c.getEmail())).toLowerCase(Locale.ROOT);
+    }
+
+    // name, address and email lower-cased, in phone order as the builder wants
+    private static CustomerSnapshot lowerCased(CustomerView v) {
+        CustomerSnapshot.Builder b = new CustomerSnapshot.Builder(true);
+        v.forEachByPhone(c -> b.row(utf8(c.getPhoneNumber()), utf8(lower(c.getName())),
+                utf8(lower(c.getAddress())), utf8(lower(c.getEmail()))));
+        return b.build();
+    }
+
+    private static String lower(String s) { return CustomerStore.safe(s).toLowerCase(Locale.ROOT); }
+
+    private static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    // slot of an indexed id in order
+    private int slotOf(int id) {
+        int slot = orderSlot(row(id));
+        while (order.data[slot] != id) slot++; // keys are unique, but be safe
+        return slot;
+    }
+
+    // first slot in order whose row sorts at or after c
+    private int orderSlot(Customer c) {
+        int lo = 0, hi = order.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ORDER.compare(row(order.data[mid]), c) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // trigrams of the lower-cased text, none spanning two fields
+    private static Set<Long> gramsOf(String t) {
+        Set<Long> out = new HashSet<>();
+        for (int i = 0; i + 3 <= t.length(); i++) {
+            if (t.charAt(i) == '\n' || t.charAt(i + 1) == '\n' || t.charAt(i + 2) == '\n') continue;
+            out.add(gram(t, i));
+        }
+        return out;
+    }
+
+    // three lower-case chars packed into one key
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+    // growable int array; posting lists stay sorted
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void clear() { size = 0; }
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int removeLast() { return data[--size]; }
+
+        void insert(int at, int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            System.arraycopy(data, at, data, at + 1, size - at);
+            data[at] = v;
+            size++;
+        }
+
+        void removeAt(int at) {
+            System.arraycopy(data, at + 1, data, at, size - at - 1);
+            size--;
+        }
+
+        void addSorted(int v) {
+            int i = Arrays.binarySearch(data, 0, size, v);
+            if (i < 0) insert(-i - 1, v);
+        }
+
+        boolean removeSorted(int v) {
+            int i = Arrays.binarySearch(data, 0, size, v);
+            if (i < 0) return false;
+            removeAt(i);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// read-only, columnar copy of the customers table for large in-memory use.
+// Phones are longs in a sorted array; name, address and email are UTF-8
+// slices of one byte arena. Strings are only made when an accessor asks,
+// so a million rows cost a few arrays instead of five million objects.
+//
+// Rows are indexed 0..size()-1 in phone order (the table's primary key
+// order); byName(rank) gives the (name, phone) order the table model uses.
+public final class CustomerSnapshot {
+
+    // phone key: the digits right-padded with zeros to 11, times 16, plus the
+    // length. Sorts exactly like the TEXT column, leading zeros included.
+    private static final int MAX_DIGITS = 11;
+    private static final long[] POW10 = new long[MAX_DIGITS + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private static final int NAME = 0, ADDRESS = 1, EMAIL = 2, EMAIL_DOMAIN = 3;
+
+    private final int size;
+    private final long[] phones;
+    private final byte[] arena;
+    // string k is arena[starts[k], starts[k + 1])
+    private final int[] starts;
+    // deduplicated: 4 string ids per row (email split at its last '@');
+    // null when not, and then row i's fields are strings 3i .. 3i+2
+    private final int[] ids;
+    private volatile int[] byName;
+
+    private CustomerSnapshot(int size, long[] phones, byte[] arena, int[] starts, int[] ids) {
+        this.size = size;
+        this.phones = phones;
+        this.arena = arena;
+        this.starts = starts;
+        this.ids = ids;
+    }
+
+    public int size() { return size; }
+
+    public String phone(int i) {
+        long k = phones[i];
+        int len = (int) (k & 15);
+        String v = Long.toString(k / 16 / POW10[MAX_DIGITS - len]);
+        return v.length() >= len ? v : "0".repeat(len - v.length()) + v;
+    }
+
+    public String name(int i) { return string(field(i, NAME)); }
+    public String address(int i) { return string(field(i, ADDRESS)); }
+
+    public String email(int i) {
+        if (ids == null) return string(field(i, EMAIL));
+        int local = ids[i * 4 + EMAIL], domain = ids[i * 4 + EMAIL_DOMAIN];
+        int a = starts[local], b = starts[local + 1], c = starts[domain], d = starts[domain + 1];
+        byte[] out = new byte[b - a + d - c];
+        System.arraycopy(arena, a, out, 0, b - a);
+        System.arraycopy(arena, c, out, b - a, d - c);
+        return new String(out, StandardCharsets.UTF_8);
+    }
+
+    public Customer get(int i) { return new Customer(phone(i), name(i), address(i), email(i)); }
+
+    // table model cell: Phone, Name, Address, Email
+    public String cell(int i, int column) {
+        switch (column) {
+            case 0: return phone(i);
+            case 1: return name(i);
+            case 2: return address(i);
+            default: return email(i);
+        }
+    }
+
+    // row index for a normalized phone, or -1
+    public int indexOf(String phone) {
+        long k = key(phone);
+        if (k < 0) return -1;
+        int i = Arrays.binarySearch(phones, 0, size, k);
+        return i < 0 ? -1 : i;
+    }
+
+    public Customer find(String phone) {
+        int i = indexOf(phone);
+        return i < 0 ? null : get(i);
+    }
+
+    // whether name, address or email of row i contains needle (UTF-8 bytes);
+    // compares in the arena, no strings made
+    public boolean contains(int i, byte[] needle) {
+        if (has(field(i, NAME), needle) || has(field(i, ADDRESS), needle)) return true;
+        if (ids == null) return has(field(i, EMAIL), needle);
+        int local = ids[i * 4 + EMAIL], domain = ids[i * 4 + EMAIL_DOMAIN];
+        if (has(local, needle) || has(domain, needle)) return true;
+        // a match across the split: starts in the local part, ends in the domain
+        int b = starts[local + 1], c = starts[domain], d = starts[domain + 1];
+        for (int p = Math.max(starts[local], b - needle.length + 1); p < b; p++) {
+            int head = b - p;
+            if (d - c < needle.length - head) return false; // later starts need more of the domain
+            if (Arrays.equals(arena, p, b, needle, 0, head)
+                    && Arrays.equals(arena, c, c + needle.length - head, needle, head, needle.length)) return true;
+        }
+        return false;
+    }
+
+    // row index of the rank-th customer in (name, phone) order; the order is
+    // worked out on first use
+    public int byName(int rank) {
+        int[] order = byName;
+        if (order == null) byName = order = nameOrder();
+        return order[rank];
+    }
+
+    // bytes held by the arrays (not counting object headers)
+    public long footprint() {
+        return 8L * phones.length + arena.length + 4L * starts.length
+                + (ids == null ? 0 : 4L * ids.length) + (byName == null ? 0 : 4L * byName.length);
+    }
+
+    private int field(int i, int f) {
+        return ids == null ? i * 3 + f : ids[i * 4 + f];
+    }
+
+    private boolean has(int k, byte[] needle) {
+        int n = needle.length, last = starts[k + 1] - n;
+        if (n == 0) return true;
+        byte first = needle[0];
+        for (int p = starts[k]; p <= last; p++)
+            if (arena[p] == first && Arrays.equals(arena, p + 1, p + n, needle, 1, n)) return true;
+        return false;
+    }
+
+    private String string(int k) {
+        return new String(arena, starts[k], starts[k + 1] - starts[k], StandardCharsets.UTF_8);
+    }
+
+    // -1 if phone is not 1..11 digits
+    static long key(String phone) {
+        int len = phone == null ? 0 : phone.length();
+        if (len == 0 || len > MAX_DIGITS) return -1;
+        long v = 0;
+        for (int i = 0; i < len; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return (v * POW10[MAX_DIGITS - len]) * 16 + len;
+    }
+
+    static long key(byte[] phone) {
+        int len = phone.length;
+        if (len == 0 || len > MAX_DIGITS) return -1;
+        long v = 0;
+        for (byte c : phone) {
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return (v * POW10[MAX_DIGITS - len]) * 16 + len;
+    }
+
+    // stable merge sort of row indexes by (name bytes, phone); the same
+    // order as SQLite's ORDER BY name, phone with the default collation
+    private int[] nameOrder() {
+        int[] a = new int[size], tmp = new int[size];
+        for (int i = 0; i < size; i++) a[i] = i;
+        for (int width = 1; width < size; width *= 2) {
+            for (int lo = 0; lo < size - width; lo += 2 * width) {
+                int mid = lo + width, hi = Math.min(lo + 2 * width, size);
+                if (compareByName(a[mid - 1], a[mid]) <= 0) continue; // already in order
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) tmp[k++] = compareByName(a[j], a[i]) < 0 ? a[j++] : a[i++];
+                while (i < mid) tmp[k++] = a[i++];
+                while (j < hi) tmp[k++] = a[j++];
+                System.arraycopy(tmp, lo, a, lo, hi - lo);
+            }
+        }
+        return a;
+    }
+
+    private int compareByName(int x, int y) {
+        int p = field(x, NAME), q = field(y, NAME);
+        int c = p == q ? 0 : Arrays.compareUnsigned(arena, starts[p], starts[p + 1], arena, starts[q], starts[q + 1]);
+        return c != 0 ? c : Long.compare(phones[x], phones[y]);
+    }
+
+    // rows must come in phone order (CustomerDao.exportRows does). With
+    // dedup, equal names, addresses, email locals and email domains are
+    // stored once; worth it when many customers share a street or a provider.
+    public static final class Builder implements CustomerDao.RowSink {
+        private static final byte[] NONE = {};
+        private final boolean dedup;
+        private int size, strings;
+        private long[] phones = new long[1024];
+        private byte[] arena = new byte[64 * 1024];
+        private int[] starts = new int[4096];
+        private int[] ids;
+        private int used;
+        // open addressing over string ids + 1, 0 = empty
+        private int[] table;
+
+        public Builder(boolean dedup) {
+            this.dedup = dedup;
+            if (dedup) {
+                ids = new int[4096];
+                table = new int[4096];
+            }
+        }
+
+        @Override public boolean row(byte[] phone, byte[] name, byte[] address, byte[] email) {
+            if (email == null) email = NONE; // the column allows NULL
+            long k = key(phone);
+            if (k < 0) return true; // not a valid phone, skip it
+            if (size > 0 && k <= phones[size - 1])
+                throw new IllegalArgumentException("rows out of phone order");
+            if (size == phones.length) phones = Arrays.copyOf(phones, size * 2);
+            phones[size] = k;
+            if (dedup) {
+                if (ids.length < (size + 1) * 4) ids = Arrays.copyOf(ids, ids.length * 2);
+                int at = lastAt(email);
+                ids[size * 4 + NAME] = intern(name, 0, name.length);
+                ids[size * 4 + ADDRESS] = intern(address, 0, address.length);
+                ids[size * 4 + EMAIL] = intern(email, 0, at);
+                ids[size * 4 + EMAIL_DOMAIN] = intern(email, at, email.length);
+            } else {
+                append(name, 0, name.length);
+                append(address, 0, address.length);
+                append(email, 0, email.length);
+            }
+            size++;
+            return true;
+        }
+
+        public CustomerSnapshot build() {
+            if (strings + 1 > starts.length) starts = Arrays.copyOf(starts, strings + 1);
+            starts[strings] = used;
+            return new CustomerSnapshot(size, Arrays.copyOf(phones, size), Arrays.copyOf(arena, used),
+                    Arrays.copyOf(starts, strings + 1), dedup ? Arrays.copyOf(ids, size * 4) : null);
+        }
+
+        private static int lastAt(byte[] email) {
+            for (int i = email.length - 1; i >= 0; i--) if (email[i] == '@') return i;
+            return email.length;
+        }
+
+        private int append(byte[] b, int from, int to) {
+            int len = to - from;
+            if (used + len > arena.length) {
+                long grown = Math.max((long) arena.length * 2, (long) used + len);
+                if (grown > Integer.MAX_VALUE - 8) throw new IllegalStateException("snapshot arena over 2 GB");
+                arena = Arrays.copyOf(arena, (int) grown);
+            }
+            System.arraycopy(b, from, arena, used, len);
+            if (strings + 2 > starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+            starts[strings] = used;
+            used += len;
+            return strings++;
+        }
+
+        private int intern(byte[] b, int from, int to) {
+            int h = 1;
+            for (int i = from; i < to; i++) h = 31 * h + b[i];
+            h ^= h >>> 16;
+            int mask = table.length - 1;
+            for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+                int id = table[slot] - 1;
+                if (id < 0) {
+                    id = append(b, from, to);
+                    table[slot] = id + 1;
+                    if (strings * 2 > table.length) rehash();
+                    return id;
+                }
+                int s = starts[id], e = id + 1 < strings ? starts[id + 1] : used;
+                if (Arrays.equals(arena, s, e, b, from, to)) return id;
+            }
+        }
+
+        private void rehash() {
+            int[] t = new int[table.length * 2];
+            int mask = t.length - 1;
+            for (int id = 0; id < strings; id++) {
+                int s = starts[id], e = id + 1 < strings ? starts[id + 1] : used, h = 1;
+                for (int i = s; i < e; i++) h = 31 * h + arena[i];
+                h ^= h >>> 16;
+                int slot = h & mask;
+                while (t[slot] != 0) slot = (slot + 1) & mask;
+                t[slot] = id + 1;
+            }
+            table = t;
+        }
+    }
+}
@@ -0,0 +1,652 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPOutputStream;
+
+public class CustomerStore {
+
+    // notified after each successful insert/update/delete
+    private final List<Consumer<CustomerEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    // phone lookups, updated by every write
+    public static final int CACHE_SIZE = 10_000;
+    private final PhoneCache cache = new PhoneCache(CACHE_SIZE);
+
+    // see view(); single-row writes hold viewLock across the database write
+    // and the publish, so versions go out in commit order
+    private final Object viewLock = new Object();
+    private volatile CustomerView view;
+
+    // per-call latency (cache and events included) and bulk volumes, see Metrics
+    private static final Metrics.Timer T_INSERT = Metrics.timer("store.insert"), T_UPDATE = Metrics.timer("store.update"),
+            T_DELETE = Metrics.timer("store.delete"), T_GET = Metrics.timer("store.getByPhone"),
+            T_IMPORT = Metrics.timer("store.import"), T_EXPORT = Metrics.timer("store.export"),
+            T_SNAPSHOT = Metrics.timer("store.snapshot"), T_APPLY = Metrics.timer("store.applyAll");
+    private static final Metrics.Counter IMPORT_ROWS = Metrics.counter("import.rows"),
+            EXPORT_ROWS = Metrics.counter("export.rows"), EXPORT_BYTES = Metrics.counter("export.bytes");
+
+    public CustomerStore() {
+        try { CustomerDao.ensureTable(); }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to ensure Customer table: " + e.getMessage(), e);
+        }
+    }
+
+    // change listeners (called on the thread that made the change)
+    public void addListener(Consumer<CustomerEvent> l) { listeners.add(l); }
+    public void removeListener(Consumer<CustomerEvent> l) { listeners.remove(l); }
+
+    private void fire(CustomerEvent.Type type, Customer c, Customer previous) {
+        if (listeners.isEmpty()) return;
+        fire(new CustomerEvent(type, c, previous));
+    }
+
+    private void fire(CustomerEvent e) {
+        for (Consumer<CustomerEvent> l : listeners) l.accept(e);
+    }
+
+    // digits only
+    public static String normalizePhone(String s) { return CustomerValidator.digits(s); }
+
+    // insert
+    public boolean insert(Customer c) {
+        long t0 = System.nanoTime();
+        try {
+            Customer row = validRow(c.getPhoneNumber(), c.getName(), c.getAddress(), c.getEmail());
+            if (row == null) return false;
+            String phone = row.getPhoneNumber();
+            synchronized (viewLock) {
+                if (!CustomerDao.insert(row)) return false;
+                publish(v -> v.with(row));
+            }
+            cache.put(phone, row);
+            fire(CustomerEvent.Type.INSERTED, row, null);
+            return true;
+        } catch (SQLException e) { return false; }
+        finally { T_INSERT.since(t0); }
+    }
+
+    // update
+    public boolean update(Customer c) {
+        long t0 = System.nanoTime();
+        try {
+            Customer row = validRow(c.getPhoneNumber(), c.getName(), c.getAddress(), c.getEmail());
+            if (row == null) return false;
+            String phone = row.getPhoneNumber();
+            Customer previous = listeners.isEmpty() ? null : lookup(phone);
+            synchronized (viewLock) {
+                if (!CustomerDao.update(row)) return false;
+                publish(v -> v.with(row));
+            }
+            cache.put(phone, row);
+            fire(CustomerEvent.Type.UPDATED, row, previous);
+            return true;
+        } catch (SQLException e) { return false; }
+        finally { T_UPDATE.since(t0); }
+    }
+
+    // delete
+    public boolean delete(String phoneRaw) {
+        long t0 = System.nanoTime();
+        try {
+            String phone = normalizePhone(phoneRaw);
+            Customer previous = listeners.isEmpty() ? null : lookup(phone);
+            synchronized (viewLock) {
+                if (!CustomerDao.delete(phone)) return false;
+                publish(v -> v.without(phone));
+            }
+            cache.put(phone, null);
+            if (previous != null) fire(CustomerEvent.Type.DELETED, previous, null);
+            return true;
+        } catch (SQLException e) { return false; }
+        finally { T_DELETE.since(t0); }
+    }
+
+    // many writes, one transaction; outcomes in the same order. Rows are
+    // validated like insert/update; if the transaction fails every valid
+    // write is FAILED and nothing changed.
+    public CustomerWrite.Outcome[] applyAll(List<CustomerWrite> writes) {
+        long t0 = System.nanoTime();
+        CustomerWrite.Outcome[] out = new CustomerWrite.Outcome[writes.size()];
+        List<CustomerWrite> valid = new ArrayList<>(writes.size());
+        int[] at = new int[writes.size()];
+        for (int i = 0; i < out.length; i++) {
+            CustomerWrite w = writes.get(i), v;
+            if (w.kind == CustomerWrite.Kind.DELETE) {
+                String phone = normalizePhone(w.phone);
+                v = phone.isEmpty() ? null : CustomerWrite.delete(phone);
+            } else {
+                Customer c = w.customer;
+                Customer row = validRow(c.getPhoneNumber(), c.getName(), c.getAddress(), c.getEmail());
+                v = row == null ? null : w.kind == CustomerWrite.Kind.INSERT ? CustomerWrite.insert(row)
+                        : w.kind == CustomerWrite.Kind.UPDATE ? CustomerWrite.update(row) : CustomerWrite.upsert(row);
+            }
+            if (v == null) out[i] = CustomerWrite.Outcome.INVALID;
+            else {
+                at[valid.size()] = i;
+                valid.add(v);
+            }
+        }
+        if (valid.isEmpty()) return out;
+        try {
+            // rows as they were, for UPDATED/DELETED events; a phone written
+            // twice in one batch sees its own earlier write
+            Map<String, Customer> before = new HashMap<>();
+            if (!listeners.isEmpty())
+                for (CustomerWrite w : valid)
+                    if (w.kind != CustomerWrite.Kind.INSERT && !before.containsKey(w.phone)) before.put(w.phone, lookup(w.phone));
+            CustomerWrite.Outcome[] done;
+            synchronized (viewLock) {
+                done = CustomerDao.applyAll(valid);
+                publish(v -> {
+                    for (int k = 0; k < done.length; k++) {
+                        CustomerWrite w = valid.get(k);
+                        if (done[k] == CustomerWrite.Outcome.DELETED) v = v.without(w.phone);
+                        else if (done[k] == CustomerWrite.Outcome.INSERTED || done[k] == CustomerWrite.Outcome.UPDATED) v = v.with(w.customer);
+                    }
+                    return v;
+                });
+            }
+            for (int k = 0; k < done.length; k++) {
+                CustomerWrite w = valid.get(k);
+                out[at[k]] = done[k];
+                switch (done[k]) {
+                    case INSERTED:
+                    case UPDATED:
+                        cache.put(w.phone, w.customer);
+                        fire(done[k] == CustomerWrite.Outcome.INSERTED ? CustomerEvent.Type.INSERTED : CustomerEvent.Type.UPDATED,
+                                w.customer, before.get(w.phone));
+                        before.put(w.phone, w.customer);
+                        break;
+                    case DELETED:
+                        cache.put(w.phone, null);
+                        Customer previous = before.put(w.phone, null);
+                        if (previous != null) fire(CustomerEvent.Type.DELETED, previous, null);
+                        break;
+                    default:
+                }
+            }
+        } catch (SQLException e) {
+            for (int k = 0; k < valid.size(); k++) out[at[k]] = CustomerWrite.Outcome.FAILED;
+        } finally {
+            T_APPLY.since(t0);
+        }
+        return out;
+    }
+
+    // find (cached)
+    public Customer getByPhone(String phoneRaw) {
+        long t0 = System.nanoTime();
+        try { return lookup(normalizePhone(phoneRaw)); }
+        catch (SQLException e) { return null; }
+        finally { T_GET.since(t0); }
+    }
+
+    // exact email, any case
+    public List<Customer> findByEmail(String email) {
+        try { return CustomerDao.findByEmail(safe(email).trim()); }
+        catch (SQLException e) { return List.of(); }
+    }
+
+    public PhoneCache.Stats getCacheStats() { return cache.stats(); }
+
+    private Customer lookup(String phone) throws SQLException {
+        syncCache();
+        PhoneCache.Lookup l = cache.get(phone);
+        if (l.hit) return l.customer;
+        Customer c = CustomerDao.find(phone);
+        cache.fill(phone, c, l.stamp);
+        return c;
+    }
+
+    // before serving cached rows: drop the phones changed since the cache
+    // last looked (this process's own writes included, other processes'
+    // only show up here); past CACHE_SIZE changes clearing is cheaper
+    private void syncCache() throws SQLException {
+        long at = cache.seq(), head = ChangeLog.head();
+        if (head == at) return;
+        boolean all = at < 0 || head < at || head - at > CACHE_SIZE;
+        cache.advance(at, head, all ? null : ChangeLog.changedPhones(at, head));
+    }
+
+    // list
+    public List<Customer> listAll() {
+        try { return CustomerDao.listAll(); }
+        catch (SQLException e) { return List.of(); }
+    }
+
+    // stream all rows, false if the read failed part way
+    public boolean forEach(Consumer<Customer> action) {
+        try { CustomerDao.forEach(action); return true; }
+        catch (SQLException e) { return false; }
+    }
+
+    // latest consistent version of the table, loaded on first use and kept
+    // current by every write after that. Changes committed since its seq
+    // (by another process on the same file, say) are folded in first, with
+    // events for the ones this process did not make. null if the first
+    // load failed; the last version if the log can't be read.
+    public CustomerView view() {
+        CustomerView v = view;
+        try {
+            if (v != null && ChangeLog.head() == v.seq()) return v; // nothing new
+        } catch (SQLException e) { return v; }
+        List<CustomerEvent> events = new ArrayList<>();
+        synchronized (viewLock) {
+            try {
+                if (view == null) view = CustomerView.load(0);
+                else catchUp(events);
+            } catch (SQLException | IOException e) {
+                if (view == null) return null;
+            }
+            v = view;
+        }
+        if (!listeners.isEmpty()) for (CustomerEvent e : events) fire(e);
+        return v;
+    }
+
+    // the view as last published, without looking at the log; null until
+    // view() loaded one. Never blocks.
+    public CustomerView latestView() { return view; }
+
+    // caller holds viewLock: every phone the log has after the view's seq,
+    // as it is now. Rows this process already published come back equal and
+    // are no change; past a pruned log the whole table is read again.
+    private void catchUp(List<CustomerEvent> events) throws SQLException, IOException {
+        CustomerView v = view;
+        if (v.seq() < ChangeLog.floor()) {
+            view = CustomerView.load(v.version() + 1);
+            return;
+        }
+        List<Customer> now = new ArrayList<>();
+        List<String> gone = new ArrayList<>();
+        long[] head = {v.seq()};
+        ChangeLog.exportSince(v.seq(), EXPORT_FETCH_SIZE, s -> head[0] = s, (phone, name, addr, email) -> {
+            if (name == null) gone.add(CustomerView.string(phone));
+            else now.add(new Customer(CustomerView.string(phone), CustomerView.string(name),
+                    CustomerView.string(addr), CustomerView.string(email)));
+            return true;
+        });
+        for (String phone : gone) {
+            Customer previous = v.get(phone);
+            if (previous == null) continue;
+            v = v.without(phone);
+            events.add(new CustomerEvent(CustomerEvent.Type.DELETED, previous, null));
+        }
+        for (Customer c : now) {
+            Customer previous = v.get(c.getPhoneNumber());
+            if (c.equals(previous)) continue;
+            v = v.with(c);
+            events.add(new CustomerEvent(previous == null ? CustomerEvent.Type.INSERTED : CustomerEvent.Type.UPDATED,
+                    c, previous));
+        }
+        view = v.at(head[0]);
+    }
+
+    // caller holds viewLock, right after the database write
+    private void publish(UnaryOperator<CustomerView> change) {
+        CustomerView v = view;
+        if (v != null) view = change.apply(v);
+    }
+
+    // after bulk writes: readers keep the old version until the new one is in
+    private void reloadView() {
+        synchronized (viewLock) {
+            CustomerView v = view;
+            if (v == null) return; // nobody asked for one yet
+            try { view = CustomerView.load(v.version() + 1); }
+            catch (SQLException e) { view = null; }
+        }
+    }
+
+    // columnar copy of the whole table (see CustomerSnapshot), null if the read failed
+    public CustomerSnapshot snapshot(boolean dedup) {
+        CustomerSnapshot.Builder b = new CustomerSnapshot.Builder(dedup);
+        long t0 = System.nanoTime();
+        try { CustomerDao.exportRows(EXPORT_FETCH_SIZE, b); return b.build(); }
+        catch (SQLException | IOException e) { return null; }
+        finally { T_SNAPSHOT.since(t0); }
+    }
+
+    // full-text search, best matches first
+    public List<Customer> search(String query, int limit, int offset) {
+        try { return CustomerDao.search(query, limit, offset); }
+        catch (SQLException e) { return List.of(); }
+    }
+
+    // paging for the table model
+    public long count(String filter) {
+        try { return CustomerDao.count(filter); }
+        catch (SQLException e) { return 0; }
+    }
+    public List<Customer> pageAfter(String filter, Customer after, int limit) {
+        try {
+            return after == null ? CustomerDao.pageAfter(filter, null, null, limit)
+                    : CustomerDao.pageAfter(filter, after.getName(), after.getPhoneNumber(), limit);
+        } catch (SQLException e) { return List.of(); }
+    }
+    public List<Customer> pageBefore(String filter, Customer before, int limit) {
+        try { return CustomerDao.pageBefore(filter, before.getName(), before.getPhoneNumber(), limit); }
+        catch (SQLException e) { return List.of(); }
+    }
+    public List<Customer> pageAt(String filter, int offset, int limit) {
+        try { return CustomerDao.pageAt(filter, offset, limit); }
+        catch (SQLException e) { return List.of(); }
+    }
+
+    // csv import
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+    private static final long PROGRESS_EVERY_MS = 500;
+
+    // import progress (rows read so far, current rate)
+    public interface ImportProgress { void update(long rows, double rowsPerSec); }
+
+    public String loadFromCsv(String path) { return importCsv(Path.of(path)); }
+
+    public String loadFromCsv(String path, ImportProgress progress) {
+        return importCsv(Path.of(path), DEFAULT_BATCH_SIZE, progress);
+    }
+
+    public String importCsv(Path csvPath) { return importCsv(csvPath, DEFAULT_BATCH_SIZE, null); }
+
+    public String importCsv(Path csvPath, int batchSize, ImportProgress progress) {
+        return importCsv(csvPath, batchSize, progress, () -> false);
+    }
+
+    // one file through the same pipeline as ingest(); rows already committed stay
+    public String importCsv(Path csvPath, int batchSize, ImportProgress progress, BooleanSupplier cancelled) {
+        try {
+            CsvIngest.Result r = ingest(List.of(csvPath), batchSize, progress, cancelled);
+            return (r.cancelled ? "Cancelled | " : "") + "Total: " + r.total + " | Added: " + r.added
+                    + " | Updated: " + r.updated + " | Skipped: " + r.skipped;
+        } catch (IOException | SQLException e) {
+            return "Import error: " + e.getMessage();
+        }
+    }
+
+    // several files or directories of *.csv in one go, see CsvIngest;
+    // for a phone in more than one file the last file listed wins
+    public String ingestCsv(List<Path> paths, int batchSize, ImportProgress progress, BooleanSupplier cancelled) {
+        try {
+            CsvIngest.Result r = ingest(paths, batchSize, progress, cancelled);
+            return r.summary() + "\n" + r.throughput();
+        } catch (IOException | SQLException e) {
+            return "Import error: " + e.getMessage();
+        }
+    }
+
+    // the same, with the numbers; cache and view are brought up to date
+    // even when it fails part way (some batches may have committed)
+    public CsvIngest.Result ingest(List<Path> paths, int batchSize, ImportProgress progress, BooleanSupplier cancelled)
+            throws IOException, SQLException {
+        long t0 = System.nanoTime();
+        try {
+            CsvIngest.Result r = new CsvIngest(batchSize).run(paths, cache::clear, progress, cancelled);
+            T_IMPORT.since(t0);
+            IMPORT_ROWS.add(r.total);
+            return r;
+        } finally {
+            cache.clear();
+            reloadView();
+        }
+    }
+
+    // trimmed, normalized customer from raw cells, or null if a cell is invalid;
+    // the single validation pass for inserts, updates and imports
+    static Customer validRow(String phoneRaw, String name, String addr, String email) {
+        return checkRow(phoneRaw, name, addr, email).row;
+    }
+
+    // the same check, also saying what is wrong for callers that report it
+    static CheckedRow checkRow(String phoneRaw, String name, String addr, String email) {
+        String phone = normalizePhone(phoneRaw);
+        name = safe(name).trim();
+        addr = safe(addr).trim();
+        email = safe(email).trim();
+        CustomerValidator.Code code = CustomerValidator.check(phone, name, addr, email);
+        return new CheckedRow(code == CustomerValidator.Code.OK ? new Customer(phone, name, addr, email) : null, code);
+    }
+
+    // row is null unless code is OK
+    static final class CheckedRow {
+        final Customer row;
+        final CustomerValidator.Code code;
+
+        CheckedRow(Customer row, CustomerValidator.Code code) {
+            this.row = row;
+            this.code = code;
+        }
+    }
+
+    private static double rate(long rows, long nanos) {
+        return nanos <= 0 ? 0 : rows * 1e9 / nanos;
+    }
+
+    // csv export
+    private static final int EXPORT_FETCH_SIZE = 2000;
+    private static final byte[][] EXPORT_HEADER = utf8(ChangeLog.FULL_HEADER), CHANGES_HEADER = utf8(ChangeLog.CHANGES_HEADER);
+    private static final byte[] OP_UPSERT = utf8(ChangeLog.UPSERT)[0], OP_DELETE = utf8(ChangeLog.DELETE)[0];
+
+    private static byte[][] utf8(String... s) {
+        byte[][] b = new byte[s.length][];
+        for (int i = 0; i < s.length; i++) b[i] = s[i].getBytes(StandardCharsets.UTF_8);
+        return b;
+    }
+
+    private static byte[] bytes(String s) { return s == null ? null : s.getBytes(StandardCharsets.UTF_8); }
+
+    // export progress (rows and bytes so far, current rate)
+    public interface ExportProgress { void update(long rows, long bytes, double bytesPerSec); }
+
+    // what an export wrote. checkpoint is the change log seq the file is
+    // consistent with; since is where a change export started (-1: full)
+    public static final class ExportStats {
+        public final long rows, bytes, nanos, since, checkpoint;
+
+        ExportStats(long rows, long bytes, long nanos, long since, long checkpoint) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.since = since;
+            this.checkpoint = checkpoint;
+        }
+
+        public boolean isChanges() { return since >= 0; }
+
+        public double bytesPerSec() { return rate(bytes, nanos); }
+    }
+
+    public boolean saveToCsv(String path) { return saveToCsv(path, () -> false); }
+
+    public boolean saveToCsv(String path, BooleanSupplier cancelled) {
+        return exportCsv(Path.of(path), path.endsWith(".gz"), null, cancelled) != null;
+    }
+
+    // stream the table to csv (optionally gzip); null on error or cancel,
+    // a cancelled or failed export leaves no partial file (an older file at
+    // path stays as it was). A finished file becomes the base for exportChanges.
+    public ExportStats exportCsv(Path path, boolean gzip, ExportProgress progress, BooleanSupplier cancelled) {
+        return toFile(path, gzip, -1, progress, cancelled);
+    }
+
+    // same to a stream, which is flushed but left open (stdout in the CLI);
+    // see recordBackup. On null what was written is incomplete; a gzip stream
+    // is left without its trailer, so gunzip rejects it rather than passing it.
+    public ExportStats exportCsv(OutputStream out, boolean gzip, ExportProgress progress, BooleanSupplier cancelled) {
+        return export(out, gzip, -1, progress, cancelled);
+    }
+
+    // only the customers changed since the last backup (full or changes),
+    // see ChangeLog: one "U" row with the current values or one "D" row per
+    // phone. null on error or cancel, or if there is no backup yet.
+    public ExportStats exportChanges(Path path, boolean gzip, ExportProgress progress, BooleanSupplier cancelled) {
+        Long since = backupCheckpoint();
+        if (since == null) return null;
+        return toFile(path, gzip, since, progress, cancelled);
+    }
+
+    // changes since any seq to a stream (left open); see recordBackup
+    public ExportStats exportChanges(OutputStream out, long since, boolean gzip, ExportProgress progress,
+                                     BooleanSupplier cancelled) {
+        return export(out, gzip, Math.max(0, since), progress, cancelled);
+    }
+
+    // where the next exportChanges starts, null if nothing was exported yet
+    public Long backupCheckpoint() {
+        try { return ChangeLog.checkpoint(ChangeLog.BACKUP); }
+        catch (SQLException e) { return null; }
+    }
+
+    // make a finished export the base for the next exportChanges (the file
+    // variants do this themselves). Change log rows before it are pruned.
+    // A change export that starts after the current base would leave a
+    // gap, so it does not count.
+    public boolean recordBackup(ExportStats st) {
+        try {
+            if (st.isChanges()) {
+                Long base = ChangeLog.checkpoint(ChangeLog.BACKUP);
+                if (base == null || st.since > base) return false;
+            }
+            ChangeLog.advance(ChangeLog.BACKUP, st.checkpoint);
+            return true;
+        } catch (SQLException e) { return false; }
+    }
+
+    private ExportStats toFile(Path path, boolean gzip, long since, ExportProgress progress, BooleanSupplier cancelled) {
+        ExportStats st = exportTo(path, gzip, since, progress, cancelled);
+        if (st != null) recordBackup(st);
+        return st;
+    }
+
+    // the export goes to path.part, is synced, then renamed onto path, so a
+    // cancel or failure never leaves a truncated file (and keeps the old one).
+    // Does not record the backup; null on error or cancel.
+    ExportStats exportTo(Path path, boolean gzip, long since, ExportProgress progress, BooleanSupplier cancelled) {
+        Path part = path.resolveSibling(path.getFileName() + ".part");
+        ExportStats st = null;
+        try {
+            try (FileChannel ch = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                st = export(Channels.newOutputStream(ch), gzip, since, progress, cancelled);
+                if (st != null) ch.force(true);
+            }
+            if (st != null) {
+                try { Files.move(part, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); }
+                catch (AtomicMoveNotSupportedException e) { Files.move(part, path, StandardCopyOption.REPLACE_EXISTING); }
+            }
+        } catch (IOException e) {
+            st = null;
+        } finally {
+            try { Files.deleteIfExists(part); } catch (IOException ignore) { }
+        }
+        return st;
+    }
+
+    // since < 0: every row (phone, name, address, email);
+    // else changed rows (op, phone, name, address, email)
+    private ExportStats export(OutputStream out, boolean gzip, long since, ExportProgress progress,
+                               BooleanSupplier cancelled) {
+        long start = System.nanoTime();
+        long[] rows = {0}, seq = {0};
+        long[] lastReport = {start};
+        try {
+            GZIPOutputStream gz = gzip ? new GZIPOutputStream(out, 1 << 16) : null;
+            CsvWriter w = new CsvWriter(gz != null ? gz : out);
+            for (byte[] h : since < 0 ? EXPORT_HEADER : CHANGES_HEADER) w.field(h);
+            w.endRow();
+            CustomerDao.RowSink sink = (phone, name, addr, email) -> {
+                if (cancelled.getAsBoolean()) return false;
+                if (since >= 0) w.field(name == null ? OP_DELETE : OP_UPSERT);
+                w.field(phone);
+                w.field(name);
+                w.field(addr);
+                w.field(email);
+                w.endRow();
+                if ((++rows[0] & 0xFFF) == 0 && progress != null) {
+                    long now = System.nanoTime();
+                    if (now - lastReport[0] >= PROGRESS_EVERY_MS * 1_000_000L) {
+                        progress.update(rows[0], w.bytesWritten(), rate(w.bytesWritten(), now - start));
+                        lastReport[0] = now;
+                    }
+                }
+                return true;
+            };
+            CustomerView v = since < 0 && view != null ? view() : null; // a loaded view is read in place
+            if (v != null) {
+                seq[0] = v.seq();
+                exportView(v, sink);
+            }
+            else if (since < 0) CustomerDao.exportRows(EXPORT_FETCH_SIZE, s -> seq[0] = s, sink);
+            else ChangeLog.exportSince(since, EXPORT_FETCH_SIZE, s -> seq[0] = s, sink);
+            if (cancelled.getAsBoolean()) return null;
+            w.flush();
+            if (gz != null) gz.finish();
+            out.flush();
+            long nanos = System.nanoTime() - start;
+            if (progress != null) progress.update(rows[0], w.bytesWritten(), rate(w.bytesWritten(), nanos));
+            T_EXPORT.record(nanos);
+            EXPORT_ROWS.add(rows[0]);
+            EXPORT_BYTES.add(w.bytesWritten());
+            return new ExportStats(rows[0], w.bytesWritten(), nanos, since, seq[0]);
+        } catch (IOException | SQLException e) {
+            return null;
+        }
+    }
+
+    // a view's rows in phone order, as exportRows would give them
+    private static void exportView(CustomerView v, CustomerDao.RowSink sink) throws IOException {
+        boolean[] stop = {false};
+        try {
+            v.forEachByPhone(c -> {
+                if (stop[0]) return;
+                try {
+                    stop[0] = !sink.row(bytes(c.getPhoneNumber()), bytes(c.getName()), bytes(c.getAddress()),
+                            bytes(c.getEmail()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // email optional
+    public static boolean isValidEmail(String s) {
+        return s == null || s.isBlank() || CustomerValidator.isEmail(s);
+    }
+    public static String emailError(String s) {
+        return isValidEmail(s) ? null : CustomerValidator.Code.EMAIL_INVALID.message;
+    }
+
+    // other checks
+    public static boolean isValidPhone(String p) { return p != null && p.length() >= 7 && p.length() <= 11; }
+    public static boolean isValidName(String s) { return s != null && !s.isBlank(); }
+    public static boolean isValidAddress(String s) { return s != null && !s.isBlank(); }
+    public static String safe(String s) { return s == null ? "" : s; }
+
+    // csv helpers
+    // a first row like "Phone,Name,..." has no digits where the phone goes
+    static boolean isHeader(CsvReader csv) {
+        byte[] b = csv.bytes();
+        for (int i = csv.start(0); i < csv.end(0); i++) if (b[i] >= '0' && b[i] <= '9') return false;
+        return true;
+    }
+}
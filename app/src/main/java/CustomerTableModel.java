@@ -0,0 +1,338 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+// table model over the published CustomerView when unfiltered (every row
+// from one consistent version, no paging); otherwise, and until the view
+// is loaded, a window of rows around the viewport from paged queries.
+// All methods run on the EDT, queries go through AsyncCustomerStore
+public class CustomerTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Phone", "Name", "Address", "Email"};
+
+    // same order as the paged queries
+    private static final Comparator<Customer> ORDER =
+            Comparator.comparing(Customer::getName).thenComparing(Customer::getPhoneNumber);
+
+    private final AsyncCustomerStore store;
+    private final int pageSize;
+    private final int maxRows;
+
+    private String filter = "";
+    private int rowCount;
+
+    // rows [windowStart, windowStart + window.size()) in (name, phone) order
+    private int windowStart;
+    private final ArrayList<Customer> window = new ArrayList<>();
+
+    // bumped on every structural change; stale fetches are dropped
+    private int version;
+    private boolean fetching;
+    private boolean reloading, reloadAgain;
+    private boolean shown;
+
+    // fixed list from the search index instead of paged queries
+    private boolean fixed;
+
+    // the version on screen when showing the view, else null
+    private CustomerView shownView;
+
+    public CustomerTableModel(AsyncCustomerStore store) { this(store, 200, 5); }
+
+    public CustomerTableModel(AsyncCustomerStore store, int pageSize, int maxPages) {
+        this.store = store;
+        this.pageSize = pageSize;
+        this.maxRows = pageSize * maxPages;
+    }
+
+    // unfiltered, once the view is loaded: show its latest version.
+    // Otherwise re-count in the background, then drop cached rows. The first
+    // page is asked for at the same time and shown as soon as it comes, so
+    // rows appear before a slow count(*) on a big table is done.
+    public CompletableFuture<Integer> reload() {
+        fixed = false;
+        if (filter.isEmpty() && store.latestView() != null) {
+            // view() folds in what other processes wrote since
+            return store.view().thenApplyAsync(v -> v == null || fixed || !filter.isEmpty() ? rowCount : showView(v),
+                    AsyncCustomerStore.EDT);
+        }
+        shownView = null;
+        if (filter.isEmpty()) {
+            // first time: page from the database while the view loads
+            store.view().thenAcceptAsync(loaded -> {
+                if (loaded != null && filter.isEmpty() && !fixed && shownView == null) showView(store.latestView());
+            }, AsyncCustomerStore.EDT);
+        }
+        version++;
+        reloading = true;
+        reloadAgain = false;
+        int v = version;
+        boolean[] firstShown = {false};
+        store.pageAfter(filter, null, pageSize).thenAcceptAsync(page -> {
+            if (v != version || !reloading) return; // count got there first
+            firstShown[0] = true;
+            rowCount = page.size(); // for now; the count fixes it
+            windowStart = 0;
+            window.clear();
+            window.addAll(page);
+            shown = true;
+            fireTableDataChanged();
+        }, AsyncCustomerStore.EDT);
+        return store.count(filter).thenApplyAsync(n -> {
+            if (v != version) return rowCount;
+            reloading = false;
+            rowCount = (int) (long) n;
+            if (!firstShown[0]) {
+                windowStart = 0;
+                window.clear();
+            }
+            version++;
+            shown = true;
+            fireTableDataChanged();
+            if (reloadAgain) reload();
+            return rowCount;
+        }, AsyncCustomerStore.EDT);
+    }
+
+    private int showView(CustomerView v) {
+        shownView = v;
+        version++;
+        reloading = false;
+        window.clear();
+        windowStart = 0;
+        rowCount = v.size();
+        shown = true;
+        fireTableDataChanged();
+        return rowCount;
+    }
+
+    // true once a reload has put rows (or "no rows") on screen
+    public boolean hasShownRows() { return shown; }
+
+    // case-insensitive substring filter on every column
+    public CompletableFuture<Integer> setFilter(String f) {
+        filter = f == null ? "" : f.trim();
+        return reload();
+    }
+
+    public String getFilter() { return filter; }
+
+    // show these rows as they are; reload()/setFilter() go back to paging
+    public void showRows(List<Customer> rows) {
+        fixed = true;
+        shownView = null;
+        filter = "";
+        reloading = false;
+        version++;
+        window.clear();
+        window.addAll(rows);
+        windowStart = 0;
+        rowCount = rows.size();
+        fireTableDataChanged();
+    }
+
+    public boolean isShowingRows() { return fixed; }
+
+    // apply one store change as a single-row insert/update/delete
+    public void apply(CustomerEvent e) {
+        if (fixed) return; // owner re-runs its search
+        if (shownView != null) { applyToView(e); return; }
+        if (reloading) { reloadAgain = true; return; } // count in flight may miss it
+        Customer c = e.getCustomer();
+        switch (e.getType()) {
+            case INSERTED:
+                if (matches(c)) insertRow(c);
+                break;
+            case DELETED:
+                if (matches(c)) removeRow(c);
+                break;
+            case UPDATED:
+                Customer prev = e.getPrevious();
+                if (prev == null) { reload(); break; }
+                boolean was = matches(prev), is = matches(c);
+                if (was && is && ORDER.compare(prev, c) == 0) replaceRow(c);
+                else {
+                    if (was) removeRow(prev);
+                    if (is) insertRow(c);
+                }
+                break;
+        }
+    }
+
+    // the change is the one step from the version on screen to the latest:
+    // a single-row event, so selection and scroll stay. Anything else (a
+    // burst, an import, another process) shows the latest version whole.
+    private void applyToView(CustomerEvent e) {
+        CustomerView cur = shownView, next = store.latestView();
+        if (next == null || next == cur) return;
+        String phone = e.getCustomer().getPhoneNumber();
+        Customer before = cur.get(phone), after = next.get(phone);
+        boolean oneStep = next.version() == cur.version() + 1 && next.size() - cur.size() == (after != null ? 1 : 0) - (before != null ? 1 : 0);
+        if (!oneStep || (e.getType() == CustomerEvent.Type.DELETED) != (after == null)
+                || (after != null && !after.equals(e.getCustomer()))) {
+            showView(next);
+            return;
+        }
+        version++;
+        if (before != null && after != null && ORDER.compare(before, after) == 0) {
+            shownView = next;
+            int pos = next.indexOf(after);
+            fireTableRowsUpdated(pos, pos);
+            return;
+        }
+        if (before != null) {
+            int pos = cur.indexOf(before);
+            shownView = cur.without(phone);
+            rowCount--;
+            fireTableRowsDeleted(pos, pos);
+        }
+        shownView = next;
+        if (after != null) {
+            int pos = next.indexOf(after);
+            rowCount++;
+            fireTableRowsInserted(pos, pos);
+        }
+    }
+
+    // cached row for a view index, null while its page is loading
+    public Customer getCustomerAt(int row) {
+        if (row < 0 || row >= rowCount) return null;
+        if (shownView != null) return shownView.at(row);
+        if (inWindow(row)) return window.get(row - windowStart);
+        request(row);
+        return null;
+    }
+
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int c) { return COLUMNS[c]; }
+    @Override public Class<?> getColumnClass(int c) { return String.class; }
+    @Override public boolean isCellEditable(int r, int c) { return false; }
+
+    @Override public Object getValueAt(int row, int col) {
+        Customer c = getCustomerAt(row);
+        if (c == null) return "";
+        switch (col) {
+            case 0: return c.getPhoneNumber();
+            case 1: return c.getName();
+            case 2: return c.getAddress();
+            default: return c.getEmail();
+        }
+    }
+
+    private void insertRow(Customer c) {
+        int pos;
+        int end = windowStart + window.size();
+        if (window.isEmpty()) pos = 0; // nothing cached, any index will do
+        else if (windowStart > 0 && ORDER.compare(c, window.get(0)) < 0) pos = windowStart++;
+        else if (end < rowCount && ORDER.compare(c, window.get(window.size() - 1)) > 0) pos = end;
+        else {
+            int i = Collections.binarySearch(window, c, ORDER);
+            i = i >= 0 ? i : -i - 1;
+            window.add(i, c);
+            pos = windowStart + i;
+            if (window.size() > maxRows) window.remove(window.size() - 1);
+        }
+        rowCount++;
+        version++;
+        fireTableRowsInserted(pos, pos);
+    }
+
+    private void removeRow(Customer c) {
+        int pos;
+        int end = windowStart + window.size();
+        if (window.isEmpty()) pos = 0;
+        else if (ORDER.compare(c, window.get(0)) < 0) {
+            if (windowStart == 0) { reload(); return; }
+            pos = --windowStart;
+        } else if (ORDER.compare(c, window.get(window.size() - 1)) > 0) {
+            if (end == rowCount) { reload(); return; }
+            pos = end;
+        } else {
+            int i = Collections.binarySearch(window, c, ORDER);
+            if (i < 0) { reload(); return; } // should have been cached
+            window.remove(i);
+            pos = windowStart + i;
+        }
+        if (rowCount == 0) { reload(); return; }
+        rowCount--;
+        version++;
+        fireTableRowsDeleted(pos, pos);
+    }
+
+    // same sort key, only the other columns changed
+    private void replaceRow(Customer c) {
+        version++;
+        int i = window.isEmpty() ? -1 : Collections.binarySearch(window, c, ORDER);
+        if (i < 0) return; // not cached, next fetch reads the new values
+        window.set(i, c);
+        fireTableRowsUpdated(windowStart + i, windowStart + i);
+    }
+
+    // Java side of the filter in CustomerDao
+    private boolean matches(Customer c) {
+        if (filter.isEmpty()) return true;
+        String f = filter.toLowerCase(Locale.ROOT);
+        return CustomerStore.safe(c.getPhoneNumber()).contains(f)
+                || CustomerStore.safe(c.getName()).toLowerCase(Locale.ROOT).contains(f)
+                || CustomerStore.safe(c.getAddress()).toLowerCase(Locale.ROOT).contains(f)
+                || CustomerStore.safe(c.getEmail()).toLowerCase(Locale.ROOT).contains(f);
+    }
+
+    private boolean inWindow(int row) {
+        return row >= windowStart && row < windowStart + window.size();
+    }
+
+    // one fetch at a time; rows still missing ask again on the next repaint
+    private void request(int row) {
+        if (fetching || reloading) return;
+        fetching = true;
+        int v = version;
+        int end = windowStart + window.size();
+
+        // extend the window by a page when scrolling, jump otherwise
+        if (!window.isEmpty() && row >= end && row < end + pageSize) {
+            store.pageAfter(filter, window.get(window.size() - 1), pageSize)
+                    .thenAcceptAsync(next -> loaded(v, next, () -> {
+                        window.addAll(next);
+                        int extra = window.size() - maxRows;
+                        if (extra > 0) {
+                            window.subList(0, extra).clear();
+                            windowStart += extra;
+                        }
+                    }), AsyncCustomerStore.EDT);
+        } else if (!window.isEmpty() && row < windowStart && row >= windowStart - pageSize) {
+            store.pageBefore(filter, window.get(0), pageSize)
+                    .thenAcceptAsync(prev -> loaded(v, prev, () -> {
+                        window.addAll(0, prev);
+                        windowStart -= prev.size();
+                        int extra = window.size() - maxRows;
+                        if (extra > 0) window.subList(window.size() - extra, window.size()).clear();
+                    }), AsyncCustomerStore.EDT);
+        } else {
+            int start = (row / pageSize) * pageSize;
+            store.pageAt(filter, start, pageSize)
+                    .thenAcceptAsync(page -> loaded(v, page, () -> {
+                        window.clear();
+                        window.addAll(page);
+                        windowStart = start;
+                    }), AsyncCustomerStore.EDT);
+        }
+    }
+
+    // apply a fetched page unless the model changed meanwhile, then repaint
+    private void loaded(int v, List<Customer> page, Runnable applyPage) {
+        fetching = false;
+        if (v != version) {
+            if (rowCount > 0) fireTableRowsUpdated(0, rowCount - 1);
+            return;
+        }
+        if (page.isEmpty()) { reload(); return; } // table shrank under us
+        applyPage.run();
+        fireTableRowsUpdated(0, rowCount - 1);
+    }
+}
@@ -0,0 +1,77 @@
+// customer field rules as plain character scans, no regex; check() looks at a
+// whole row once and says what is wrong with it
+public final class CustomerValidator {
+
+    public enum Code {
+        OK(null),
+        PHONE_INVALID("Phone must be 7–11 digits."),
+        NAME_REQUIRED("Name required."),
+        ADDRESS_REQUIRED("Address required."),
+        EMAIL_INVALID("Invalid email. Use format name@example.com.");
+
+        public final String message;
+
+        Code(String message) { this.message = message; }
+    }
+
+    // ASCII classes of ^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$
+    private static final boolean[] LOCAL = new boolean[128], DOMAIN = new boolean[128];
+    static {
+        for (char c = 'a'; c <= 'z'; c++) LOCAL[c] = LOCAL[c - 32] = DOMAIN[c] = DOMAIN[c - 32] = true;
+        for (char c = '0'; c <= '9'; c++) LOCAL[c] = DOMAIN[c] = true;
+        for (char c : "._%+-".toCharArray()) LOCAL[c] = true;
+        DOMAIN['.'] = DOMAIN['-'] = true;
+    }
+
+    private CustomerValidator() { }
+
+    // fields already normalized and trimmed (see CustomerStore.validRow)
+    public static Code check(String phone, String name, String address, String email) {
+        if (phone == null || phone.length() < 7 || phone.length() > 11) return Code.PHONE_INVALID;
+        if (name == null || name.isBlank()) return Code.NAME_REQUIRED;
+        if (address == null || address.isBlank()) return Code.ADDRESS_REQUIRED;
+        if (email != null && !email.isBlank() && !isEmail(email)) return Code.EMAIL_INVALID;
+        return Code.OK;
+    }
+
+    // ASCII digits of s; s itself when it has nothing else
+    public static String digits(String s) {
+        if (s == null) return "";
+        int n = s.length(), i = 0;
+        while (i < n && isDigit(s.charAt(i))) i++;
+        if (i == n) return s;
+        char[] out = new char[n];
+        s.getChars(0, i, out, 0);
+        int k = i;
+        for (; i < n; i++) {
+            char c = s.charAt(i);
+            if (isDigit(c)) out[k++] = c;
+        }
+        return new String(out, 0, k);
+    }
+
+    // local@domain.tld, same language as the old regex: one '@', the part after
+    // it from the domain class, and the text after its last '.' 2+ letters
+    public static boolean isEmail(String s) {
+        int n = s.length(), at = -1;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '@') {
+                if (at >= 0) return false;
+                at = i;
+            } else if (c >= 128 || !(at < 0 ? LOCAL[c] : DOMAIN[c])) {
+                return false;
+            }
+        }
+        if (at <= 0) return false;
+        int dot = s.lastIndexOf('.');
+        if (dot <= at + 1 || n - dot - 1 < 2) return false;
+        for (int i = dot + 1; i < n; i++) {
+            char c = s.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+}
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+// one consistent version of the whole table, indexed by phone and by
+// (name, phone) order. Immutable, so any number of threads can read it
+// while edits go on; CustomerStore.view() returns the latest version and
+// every write publishes a new one that shares all untouched nodes.
+//
+// seq is the change log position (see ChangeLog) the version is consistent
+// with: every change up to it is in. Writes of this process are published
+// at once and may run ahead of seq until the next view() folds the log in.
+public final class CustomerView {
+
+    // same order as the paged queries and the table model
+    public static final Comparator<Customer> NAME_ORDER =
+            Comparator.comparing(Customer::getName).thenComparing(Customer::getPhoneNumber);
+
+    private static final int FETCH_SIZE = 2000;
+
+    private final long version, seq;
+    private final PersistentTree<String, Customer> byPhone;
+    private final PersistentTree<Customer, Customer> byName;
+
+    private CustomerView(long version, long seq, PersistentTree<String, Customer> byPhone,
+                         PersistentTree<Customer, Customer> byName) {
+        this.version = version;
+        this.seq = seq;
+        this.byPhone = byPhone;
+        this.byName = byName;
+    }
+
+    // goes up by one per published change
+    public long version() { return version; }
+
+    public long seq() { return seq; }
+
+    public int size() { return byPhone.size(); }
+
+    // by normalized phone, null if absent
+    public Customer get(String phone) { return byPhone.get(phone); }
+
+    // rank-th customer in name order
+    public Customer at(int rank) { return byName.keyAt(rank); }
+
+    // rank in name order, or -(insertion point) - 1
+    public int indexOf(Customer c) { return byName.rank(c); }
+
+    // name order
+    public void forEach(Consumer<Customer> action) { byName.forEach((c, same) -> action.accept(c)); }
+
+    // phone order
+    public void forEachByPhone(Consumer<Customer> action) { byPhone.forEach((p, c) -> action.accept(c)); }
+
+    // insert or replace by phone
+    CustomerView with(Customer c) {
+        Customer previous = byPhone.get(c.getPhoneNumber());
+        PersistentTree<Customer, Customer> names = previous == null ? byName : byName.remove(previous);
+        return new CustomerView(version + 1, seq, byPhone.put(c.getPhoneNumber(), c), names.put(c, c));
+    }
+
+    CustomerView without(String phone) {
+        Customer previous = byPhone.get(phone);
+        if (previous == null) return this;
+        return new CustomerView(version + 1, seq, byPhone.remove(phone), byName.remove(previous));
+    }
+
+    // the same rows, known to be consistent with the log up to seq
+    CustomerView at(long seq) {
+        return seq == this.seq ? this : new CustomerView(version, seq, byPhone, byName);
+    }
+
+    // the table as it is now, one read (rows and seq from the same
+    // transaction); version carries on from previous
+    static CustomerView load(long version) throws SQLException {
+        List<Customer> phoneOrder = new ArrayList<>();
+        long[] seq = {0};
+        try {
+            CustomerDao.exportRows(FETCH_SIZE, s -> seq[0] = s, (phone, name, address, email) -> {
+                phoneOrder.add(new Customer(string(phone), string(name), string(address), string(email)));
+                return true;
+            });
+        } catch (IOException e) {
+            throw new SQLException(e); // the sink above does no I/O
+        }
+        List<String> phones = new ArrayList<>(phoneOrder.size());
+        for (Customer c : phoneOrder) phones.add(c.getPhoneNumber());
+        List<Customer> rows = new ArrayList<>(phoneOrder);
+        rows.sort(NAME_ORDER); // SQLite and String order only differ outside the BMP
+        return new CustomerView(version, seq[0],
+                PersistentTree.ofSorted(Comparator.naturalOrder(), phones, phoneOrder),
+                PersistentTree.ofSorted(NAME_ORDER, rows, rows));
+    }
+
+    static String string(byte[] b) { return b == null ? null : new String(b, StandardCharsets.UTF_8); }
+}
@@ -0,0 +1,30 @@
+// one row change, for writes applied together in a single transaction
+// (CustomerStore.applyAll, GroupCommit)
+public final class CustomerWrite {
+
+    public enum Kind { INSERT, UPDATE, UPSERT, DELETE }
+
+    // what happened to one write; INVALID and FAILED leave the row alone
+    public enum Outcome { INSERTED, UPDATED, DELETED, EXISTS, NOT_FOUND, INVALID, FAILED }
+
+    public final Kind kind;
+    public final String phone;
+    public final Customer customer; // null for DELETE
+
+    private CustomerWrite(Kind kind, String phone, Customer customer) {
+        this.kind = kind;
+        this.phone = phone;
+        this.customer = customer;
+    }
+
+    // insert only if the phone is new
+    public static CustomerWrite insert(Customer c) { return new CustomerWrite(Kind.INSERT, c.getPhoneNumber(), c); }
+
+    // update only if the phone exists
+    public static CustomerWrite update(Customer c) { return new CustomerWrite(Kind.UPDATE, c.getPhoneNumber(), c); }
+
+    // insert or update
+    public static CustomerWrite upsert(Customer c) { return new CustomerWrite(Kind.UPSERT, c.getPhoneNumber(), c); }
+
+    public static CustomerWrite delete(String phone) { return new CustomerWrite(Kind.DELETE, phone, null); }
+}
@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// write-behind queue in front of the database: writes from any thread are
+// queued and one writer thread commits them in groups, one transaction
+// (one fsync) per group. A group goes when maxBatch rows are waiting, when
+// the oldest has waited lingerMillis, or on flush()/close(); with linger 0
+// whatever piled up during the previous commit goes at once.
+//
+// Writes to the same phone that are still queued are coalesced: update
+// after update keeps only the last row, a delete drops what came before
+// it. Each caller still gets the outcome its own write would have had.
+//
+// The future completes after the commit, and after cache, view and
+// listeners have the change, so a read started from it sees the write.
+// Writes are committed in submit order per phone; don't mix this with
+// direct CustomerStore writes to the same phones.
+public final class GroupCommit implements AutoCloseable {
+
+    private static final class Pending {
+        final CustomerWrite write;
+        final CompletableFuture<CustomerWrite.Outcome> done = new CompletableFuture<>();
+
+        Pending(CustomerWrite write) { this.write = write; }
+    }
+
+    // queued writes for one phone: what callers asked for, and the fewest
+    // statements with the same end result
+    private static final class Slot {
+        final List<Pending> asked = new ArrayList<>(1);
+        final List<CustomerWrite> ops = new ArrayList<>(1);
+    }
+
+    private static final Metrics.Timer T_BATCH = Metrics.timer("group.commit");
+    private static final Metrics.Counter WRITES = Metrics.counter("group.writes"),
+            COALESCED = Metrics.counter("group.coalesced"), COMMITS = Metrics.counter("group.commits");
+
+    private final CustomerStore store;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final Thread writer;
+
+    // guarded by this
+    private Map<String, Slot> queued = new LinkedHashMap<>();
+    private Map<String, Slot> inFlight = Map.of(); // the batch being committed
+    private int queuedOps;
+    private long oldest; // nanoTime of the first write in queued
+    private List<CompletableFuture<Void>> flushes = new ArrayList<>();
+    private boolean closed;
+    private CompletableFuture<CustomerWrite.Outcome> lastDone = CompletableFuture.completedFuture(null);
+
+    public GroupCommit(CustomerStore store, int maxBatch, long lingerMillis) {
+        this.store = store;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+        writer = new Thread(this::loop, "group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // completes once the write is committed (or known not to be). Rows are
+    // validated here: an invalid one completes INVALID at once.
+    public CompletableFuture<CustomerWrite.Outcome> submit(CustomerWrite w) {
+        CustomerWrite v = normalized(w);
+        Pending p = new Pending(v);
+        if (v == null) {
+            p.done.complete(CustomerWrite.Outcome.INVALID);
+            return p.done;
+        }
+        synchronized (this) {
+            if (closed) {
+                p.done.completeExceptionally(new IllegalStateException("closed"));
+                return p.done;
+            }
+            Slot s = queued.get(v.phone);
+            if (s == null) queued.put(v.phone, s = new Slot());
+            s.asked.add(p);
+            CustomerWrite merged = s.ops.isEmpty() ? null : merge(s.ops.get(s.ops.size() - 1), v);
+            if (merged != null) {
+                s.ops.set(s.ops.size() - 1, merged);
+                COALESCED.increment();
+            } else {
+                s.ops.add(v);
+                if (queuedOps++ == 0) oldest = System.nanoTime();
+            }
+            lastDone = p.done;
+            notifyAll();
+        }
+        WRITES.increment();
+        return p.done;
+    }
+
+    // completes when everything submitted before it is committed
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) return lastDone.handle((o, e) -> null);
+            flushes.add(f);
+            notifyAll();
+        }
+        return f;
+    }
+
+    // done when the last write submitted for phone is (completed already if
+    // none is queued or committing); reads chained on it see that write
+    public CompletableFuture<?> settled(String phone) {
+        String key = CustomerStore.normalizePhone(phone);
+        synchronized (this) {
+            Slot s = queued.get(key);
+            if (s == null) s = inFlight.get(key);
+            if (s != null) return s.asked.get(s.asked.size() - 1).done;
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // commit everything queued, then stop the writer
+    @Override public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try { writer.join(TimeUnit.SECONDS.toMillis(30)); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    private void loop() {
+        while (true) {
+            Map<String, Slot> batch;
+            List<CompletableFuture<Void>> waiting;
+            boolean last;
+            synchronized (this) {
+                try {
+                    while (!due()) {
+                        if (queuedOps == 0 || lingerNanos == 0) wait();
+                        else TimeUnit.NANOSECONDS.timedWait(this, oldest + lingerNanos - System.nanoTime());
+                    }
+                } catch (InterruptedException e) {
+                    continue; // only close() stops us
+                }
+                batch = queued;
+                inFlight = batch;
+                waiting = flushes;
+                last = closed;
+                queued = new LinkedHashMap<>();
+                queuedOps = 0;
+                flushes = new ArrayList<>();
+            }
+            if (!batch.isEmpty()) commit(batch);
+            synchronized (this) { inFlight = Map.of(); }
+            for (CompletableFuture<Void> f : waiting) f.complete(null);
+            if (last) return;
+        }
+    }
+
+    // caller holds this
+    private boolean due() {
+        if (closed || !flushes.isEmpty()) return true;
+        if (queuedOps == 0) return false;
+        return queuedOps >= maxBatch || System.nanoTime() - oldest >= lingerNanos;
+    }
+
+    private void commit(Map<String, Slot> batch) {
+        long t0 = System.nanoTime();
+        List<CustomerWrite> ops = new ArrayList<>();
+        for (Slot s : batch.values()) ops.addAll(s.ops);
+        try {
+            CustomerWrite.Outcome[] out = store.applyAll(ops);
+            int i = 0;
+            for (Slot s : batch.values()) {
+                replay(s, out[i]);
+                i += s.ops.size();
+            }
+        } catch (RuntimeException e) {
+            for (Slot s : batch.values()) for (Pending p : s.asked) p.done.completeExceptionally(e);
+        } finally {
+            T_BATCH.since(t0);
+            COMMITS.increment();
+        }
+    }
+
+    // what the first statement found tells whether the row was there before
+    // the group; from that, each asked-for write's own outcome follows
+    private static void replay(Slot s, CustomerWrite.Outcome first) {
+        Boolean existed = existedBefore(s.ops.get(0).kind, first);
+        if (existed == null) { // FAILED or INVALID: none of them happened
+            for (Pending p : s.asked) p.done.complete(first);
+            return;
+        }
+        boolean exists = existed;
+        for (Pending p : s.asked) {
+            CustomerWrite.Outcome o;
+            switch (p.write.kind) {
+                case INSERT:
+                    o = exists ? CustomerWrite.Outcome.EXISTS : CustomerWrite.Outcome.INSERTED;
+                    exists = true;
+                    break;
+                case UPDATE:
+                    o = exists ? CustomerWrite.Outcome.UPDATED : CustomerWrite.Outcome.NOT_FOUND;
+                    break;
+                case UPSERT:
+                    o = exists ? CustomerWrite.Outcome.UPDATED : CustomerWrite.Outcome.INSERTED;
+                    exists = true;
+                    break;
+                default:
+                    o = exists ? CustomerWrite.Outcome.DELETED : CustomerWrite.Outcome.NOT_FOUND;
+                    exists = false;
+            }
+            p.done.complete(o);
+        }
+    }
+
+    private static Boolean existedBefore(CustomerWrite.Kind kind, CustomerWrite.Outcome o) {
+        switch (o) {
+            case INSERTED: return false;
+            case EXISTS: case UPDATED: case DELETED: return true;
+            case NOT_FOUND: return false;
+            default: return null;
+        }
+    }
+
+    // one statement doing a then b, or null if there is none. Exact for
+    // every pair except UPDATE then INSERT (the end row depends on whether
+    // the phone was there), which stays two statements.
+    static CustomerWrite merge(CustomerWrite a, CustomerWrite b) {
+        switch (b.kind) {
+            case UPSERT:
+            case DELETE:
+                return b; // the end result ignores a
+            case UPDATE:
+                switch (a.kind) {
+                    case INSERT: case UPSERT: return CustomerWrite.upsert(b.customer); // the row is there by now
+                    case UPDATE: return b;
+                    default: return a; // deleted: b finds nothing
+                }
+            default: // INSERT
+                switch (a.kind) {
+                    case INSERT: case UPSERT: return a; // b finds a's row
+                    case DELETE: return CustomerWrite.upsert(b.customer);
+                    default: return null;
+                }
+        }
+    }
+
+    // the normalized write, or null if its row is invalid
+    private static CustomerWrite normalized(CustomerWrite w) {
+        if (w.kind == CustomerWrite.Kind.DELETE) {
+            String phone = CustomerStore.normalizePhone(w.phone);
+            return phone.isEmpty() ? null : CustomerWrite.delete(phone);
+        }
+        Customer c = w.customer;
+        Customer row = CustomerStore.validRow(c.getPhoneNumber(), c.getName(), c.getAddress(), c.getEmail());
+        if (row == null) return null;
+        switch (w.kind) {
+            case INSERT: return CustomerWrite.insert(row);
+            case UPDATE: return CustomerWrite.update(row);
+            default: return CustomerWrite.upsert(row);
+        }
+    }
+}
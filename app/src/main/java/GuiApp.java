@@ -0,0 +1,578 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.awt.Desktop;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.prefs.Preferences;
+
+public class GuiApp extends JFrame {
+
+    // set by openStore() once the database is open
+    private CustomerStore store;
+
+    // all db/file work goes through here, off the EDT
+    private AsyncCustomerStore async;
+
+    // paged model, created with the store
+    private CustomerTableModel tableModel;
+
+    private final JTable table = new JTable() {
+        @Override protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (firstRowsPending && tableModel != null && tableModel.hasShownRows()) firstRowsPainted();
+        }
+    };
+
+    // activity log: bounded ring, painted through a virtual list
+    private static final int LOG_CAPACITY = 5000;
+    private static final long LOG_FILE_BYTES = 5L << 20;
+    private final ActivityLog activity = new ActivityLog(LOG_CAPACITY);
+    private final ActivityLog.Model logModel = new ActivityLog.Model(activity);
+    private final JList<String> log = new JList<>(logModel);
+    private final JTextField searchField = new JTextField(18);
+
+    // type-ahead search, debounced; SQL filter until the index is loaded
+    private static final int SEARCH_LIMIT = 5000;
+    private final CustomerSearchIndex searchIndex = new CustomerSearchIndex();
+    private final Timer searchDebounce = new Timer(150, e -> filter());
+
+    // long import/export job and its status bar
+    private CompletableFuture<?> job;
+    private final JProgressBar progress = new JProgressBar();
+    private final JButton cancelJob = new JButton("Cancel");
+
+    // set while exit waits for queued edits; the window is locked meanwhile
+    private static final int EXIT_FLUSH_SECONDS = 10;
+    private boolean exiting;
+
+    private JDialog statsDialog;
+
+    // startup stages in nanoseconds since main(), see Stats
+    private static final long MAIN_NANOS = System.nanoTime();
+    private static final Metrics.Timer T_WINDOW = Metrics.timer("startup.window"),
+            T_DATABASE = Metrics.timer("startup.database"), T_FIRST_ROWS = Metrics.timer("startup.firstRows");
+    private long windowNanos, databaseNanos;
+    private boolean firstRowsPending = true;
+
+    // the database opened last time is opened again without asking
+    private static final String PREF_LAST_DB = "lastDatabase";
+    private final String dbPath;
+
+    // enabled once the store is open
+    private final List<JComponent> needsStore = new ArrayList<>();
+
+    // usage: GuiApp [file.db] [--choose]
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            String db = databasePath(args);
+            if (db == null) {
+                JOptionPane.showMessageDialog(null, "No database selected. Exiting.");
+                System.exit(0);
+            }
+            GuiApp app = new GuiApp(db);
+            app.setVisible(true);
+            app.openStore();
+        });
+    }
+
+    // from the command line, else the last one used, else ask (--choose: always ask)
+    private static String databasePath(String[] args) {
+        boolean choose = false;
+        String given = null;
+        for (String a : args) {
+            if (a.equals("--choose")) choose = true;
+            else given = a;
+        }
+        if (given != null) return new File(given).getAbsolutePath();
+        String last = prefs().get(PREF_LAST_DB, null);
+        if (!choose && last != null && new File(last).isFile()) return last;
+        JFileChooser fc = new JFileChooser(last == null ? null : new File(last).getParentFile());
+        fc.setDialogTitle("Select SQLite Database (.db)");
+        if (fc.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) return null;
+        return fc.getSelectedFile().getAbsolutePath();
+    }
+
+    private static Preferences prefs() { return Preferences.userNodeForPackage(GuiApp.class); }
+
+    private static long sinceMain() { return System.nanoTime() - MAIN_NANOS; }
+
+    // builds the window only; the database is opened by openStore()
+    public GuiApp(String dbPath) {
+        super("Maintenance Shop - " + new File(dbPath).getName());
+        this.dbPath = dbPath;
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        setSize(1000, 700);
+        setLocationRelativeTo(null);
+
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowOpened(WindowEvent e) {
+                windowNanos = sinceMain();
+                T_WINDOW.record(windowNanos);
+            }
+            @Override public void windowClosing(WindowEvent e) { doExit(); }
+        });
+
+        setLayout(new BorderLayout(5,5));
+        buildToolbar();
+        add(buildMainPanel(), BorderLayout.CENTER);
+        add(buildStatusBar(), BorderLayout.SOUTH);
+
+        // log setup: fixed cell size so the list never measures every row,
+        // follow the newest line; -Dmaintenance.logFile=... keeps a rolling copy
+        log.setVisibleRowCount(5);
+        log.setFixedCellHeight(log.getFontMetrics(log.getFont()).getHeight() + 2);
+        log.setFixedCellWidth(100);
+        logModel.addListDataListener(new javax.swing.event.ListDataListener() {
+            public void intervalAdded(javax.swing.event.ListDataEvent e){ log.ensureIndexIsVisible(e.getIndex1()); }
+            public void intervalRemoved(javax.swing.event.ListDataEvent e){ }
+            public void contentsChanged(javax.swing.event.ListDataEvent e){ }
+        });
+        String logFile = System.getProperty("maintenance.logFile");
+        if (logFile != null && !logFile.isBlank()) activity.spillTo(Path.of(logFile), LOG_FILE_BYTES, 3);
+
+        for (JComponent c : needsStore) c.setEnabled(false);
+        logMsg("[DB] opening " + dbPath);
+    }
+
+    // driver, connections and schema off the EDT, then the first page
+    private void openStore() {
+        CompletableFuture.supplyAsync(() -> {
+            ConnectionManager.setDatabasePath(dbPath);
+            CustomerStore s = new CustomerStore();
+            try { ConnectionManager.warmUp(2); } // count and first page run side by side
+            catch (SQLException ignore) { } // readers open on demand instead
+            return s;
+        }).whenCompleteAsync((s, err) -> {
+            if (err != null) {
+                prefs().remove(PREF_LAST_DB); // ask next time
+                JOptionPane.showMessageDialog(this, "Could not open " + dbPath + ":\n"
+                        + (err.getCause() != null ? err.getCause() : err).getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
+            databaseNanos = sinceMain();
+            T_DATABASE.record(databaseNanos);
+            prefs().put(PREF_LAST_DB, dbPath);
+            attach(s);
+        }, AsyncCustomerStore.EDT);
+    }
+
+    private void attach(CustomerStore s) {
+        store = s;
+        async = new AsyncCustomerStore(store);
+        tableModel = new CustomerTableModel(async);
+        table.setModel(tableModel);
+        store.addListener(searchIndex::apply); // index first, so a re-run search sees the change
+        store.addListener(e -> SwingUtilities.invokeLater(() -> {
+            if (tableModel.isShowingRows()) searchDebounce.restart();
+            else tableModel.apply(e);
+        }));
+        for (JComponent c : needsStore) c.setEnabled(true);
+        logMsg("[DB] ready");
+
+        refreshTable();
+        loadSearchIndex();
+    }
+
+    // first paint with customer rows (or an empty table) after startup
+    private void firstRowsPainted() {
+        firstRowsPending = false;
+        long firstRows = sinceMain();
+        T_FIRST_ROWS.record(firstRows);
+        logMsg(String.format("[STARTUP] window %.0f ms, database %.0f ms, first rows %.0f ms",
+                windowNanos / 1e6, databaseNanos / 1e6, firstRows / 1e6));
+    }
+
+    // simple alerts
+    private void info(String m){ JOptionPane.showMessageDialog(this, m); }
+    private void warn(String m){ JOptionPane.showMessageDialog(this, m, "Warning", JOptionPane.WARNING_MESSAGE); }
+    private void logMsg(String m){ activity.add(m); }
+
+    private Component buildMainPanel() {
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(22);
+
+        JPanel p = new JPanel(new BorderLayout());
+        p.setBorder(new EmptyBorder(5,5,5,5));
+        p.add(new JScrollPane(table), BorderLayout.CENTER);
+        p.add(new JScrollPane(log), BorderLayout.SOUTH);
+
+        // search
+        searchDebounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            public void changedUpdate(DocumentEvent e) { searchDebounce.restart(); }
+        });
+
+        return p;
+    }
+
+    private Component buildStatusBar() {
+        progress.setStringPainted(true);
+        progress.setString("");
+        cancelJob.setEnabled(false);
+        cancelJob.addActionListener(e -> { if (job != null) job.cancel(true); });
+        JPanel p = new JPanel(new BorderLayout(5,5));
+        p.setBorder(new EmptyBorder(0,5,5,5));
+        p.add(progress, BorderLayout.CENTER);
+        p.add(cancelJob, BorderLayout.EAST);
+        return p;
+    }
+
+    // one long job at a time; returns false if one is already running
+    private boolean startJob(String label) {
+        if (job != null && !job.isDone()) { warn("An import or export is already running."); return false; }
+        progress.setIndeterminate(true);
+        progress.setString(label);
+        cancelJob.setEnabled(true);
+        return true;
+    }
+
+    private void endJob() {
+        job = null;
+        progress.setIndeterminate(false);
+        progress.setString("");
+        cancelJob.setEnabled(false);
+    }
+
+    private void buildToolbar() {
+        JToolBar tb = new JToolBar();
+        tb.setFloatable(false);
+
+        tb.add(storeBtn("Load CSV", e -> onLoadCsv()));
+        tb.add(storeBtn("Refresh", e -> refreshTable()));
+        tb.addSeparator();
+        tb.add(storeBtn("Add", e -> onAdd()));
+        tb.add(storeBtn("Update", e -> onUpdate()));
+        tb.add(storeBtn("Delete", e -> onDelete()));
+        tb.add(storeBtn("Export All", e -> onExportCsv()));
+        tb.add(storeBtn("Export Changes", e -> onExportChanges()));
+        tb.addSeparator();
+        tb.add(storeBtn("Stats", e -> showStats()));
+        tb.add(btn("Clear Log", e -> logModel.clear()));
+        tb.add(btn("Exit", e -> doExit()));
+
+        tb.add(Box.createHorizontalGlue());
+        tb.add(new JLabel("Search: "));
+        tb.add(searchField);
+        needsStore.add(searchField);
+        JButton clear=new JButton("✕");
+        clear.addActionListener(e->searchField.setText(""));
+        tb.add(clear);
+
+        add(tb, BorderLayout.NORTH);
+    }
+
+    // live metrics window, one per app
+    private void showStats() {
+        if (statsDialog == null) {
+            statsDialog = new JDialog(this, "Stats", false);
+            statsDialog.setContentPane(new StatsPanel(store));
+            statsDialog.setSize(820, 520);
+            statsDialog.setLocationRelativeTo(this);
+        }
+        statsDialog.setVisible(true);
+        statsDialog.toFront();
+    }
+
+    private JButton btn(String t, java.awt.event.ActionListener a) {
+        JButton b = new JButton(t);
+        b.addActionListener(a);
+        return b;
+    }
+
+    private JButton storeBtn(String t, java.awt.event.ActionListener a) {
+        JButton b = btn(t, a);
+        needsStore.add(b);
+        return b;
+    }
+
+    // load CSV
+    private void onLoadCsv() {
+        JFileChooser c = new JFileChooser();
+        c.setMultiSelectionEnabled(true); // several branch feeds, or folders of them
+        c.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        if (c.showOpenDialog(this)!=JFileChooser.APPROVE_OPTION) return;
+        if (!startJob("Importing...")) return;
+        List<Path> paths = new ArrayList<>();
+        for (File file : c.getSelectedFiles()) paths.add(file.toPath());
+        CompletableFuture<String> f = async.ingestCsv(paths,
+                (rows, rate) -> SwingUtilities.invokeLater(() -> {
+                    String p = String.format("%,d rows (%,.0f rows/s)", rows, rate);
+                    progress.setString("Importing... " + p);
+                    logMsg("[CSV] " + p);
+                }));
+        job = f;
+        f.whenCompleteAsync((msg, err) -> {
+            endJob();
+            if (f.isCancelled()) msg = "Import cancelled";
+            else if (err != null) msg = "Import error: " + err.getMessage();
+            info(msg);
+            logMsg("[CSV] " + msg);
+            refreshTable();
+            loadSearchIndex(); // bulk import does not send row events
+        }, AsyncCustomerStore.EDT);
+    }
+
+    // export CSV
+    private void onExportCsv() {
+        JFileChooser c = new JFileChooser();
+        c.setSelectedFile(new File("backup.csv"));
+        if (c.showSaveDialog(this)!=JFileChooser.APPROVE_OPTION) return;
+        if (!startJob("Exporting...")) return;
+
+        File out = c.getSelectedFile();
+        boolean gzip = out.getName().endsWith(".gz");
+        CompletableFuture<CustomerStore.ExportStats> f = async.exportCsv(out.toPath(), gzip,
+                (rows, bytes, rate) -> SwingUtilities.invokeLater(() ->
+                        progress.setString(String.format("Exporting... %,d rows (%.1f MB/s)", rows, rate / 1e6))));
+        job = f;
+        f.whenCompleteAsync((st, err) -> {
+            endJob();
+            if (f.isCancelled()) {
+                logMsg("[CSV] Export cancelled");
+            } else if (err == null && st != null) {
+                String path = out.getAbsolutePath();
+                info("Export OK\nPath: " + path);
+                logMsg(String.format("[CSV] Exported: %s (%,d rows, %,d bytes, %.1f MB/s)",
+                        path, st.rows, st.bytes, st.bytesPerSec() / 1e6));
+                try { Desktop.getDesktop().open(out); } catch(Exception ignored){}
+            } else {
+                warn("Export failed");
+                logMsg("[CSV] Export failed");
+            }
+        }, AsyncCustomerStore.EDT);
+    }
+
+    // export only what changed since the last export (see ChangeLog)
+    private void onExportChanges() {
+        async.backupCheckpoint().thenAcceptAsync(since -> {
+            if (since == null) { info("No backup yet: use Export All first; later exports can be changes only."); return; }
+            JFileChooser c = new JFileChooser();
+            c.setSelectedFile(new File("changes-" + since + ".csv"));
+            if (c.showSaveDialog(this)!=JFileChooser.APPROVE_OPTION) return;
+            if (!startJob("Exporting changes...")) return;
+
+            File out = c.getSelectedFile();
+            CompletableFuture<CustomerStore.ExportStats> f = async.exportChanges(out.toPath(), out.getName().endsWith(".gz"),
+                    (rows, bytes, rate) -> SwingUtilities.invokeLater(() ->
+                            progress.setString(String.format("Exporting changes... %,d rows", rows))));
+            job = f;
+            f.whenCompleteAsync((st, err) -> {
+                endJob();
+                if (f.isCancelled()) {
+                    logMsg("[CSV] Export cancelled");
+                } else if (err == null && st != null) {
+                    info(String.format("Exported %,d changed customers\nPath: %s", st.rows, out.getAbsolutePath()));
+                    logMsg(String.format("[CSV] Exported changes %d..%d: %s (%,d rows, %,d bytes, %d ms)",
+                            st.since, st.checkpoint, out.getAbsolutePath(), st.rows, st.bytes, st.nanos / 1_000_000));
+                } else {
+                    warn("Export failed");
+                    logMsg("[CSV] Export of changes failed");
+                }
+            }, AsyncCustomerStore.EDT);
+        }, AsyncCustomerStore.EDT);
+    }
+
+    // simple form
+    private JPanel makeForm(JTextField ph, JTextField nm, JTextField ad, JTextField em){
+        JPanel p=new JPanel(new GridLayout(4,2,5,5));
+        p.add(new JLabel("Phone (digits only):")); p.add(ph);
+        p.add(new JLabel("Name:")); p.add(nm);
+        p.add(new JLabel("Address:")); p.add(ad);
+        p.add(new JLabel("Email (optional):")); p.add(em);
+        return p;
+    }
+
+    // add
+    private void onAdd() {
+        JTextField ph=new JTextField();
+        JTextField nm=new JTextField();
+        JTextField ad=new JTextField();
+        JTextField em=new JTextField();
+
+        JPanel form=makeForm(ph,nm,ad,em);
+        if(JOptionPane.showConfirmDialog(this,form,"Add Customer",
+                JOptionPane.OK_CANCEL_OPTION)!=JOptionPane.OK_OPTION) return;
+
+        String phone = CustomerStore.normalizePhone(ph.getText());
+        String name  = nm.getText().trim();
+        String addr  = ad.getText().trim();
+        String email = em.getText().trim();
+
+        CustomerValidator.Code invalid = CustomerValidator.check(phone, name, addr, email);
+        if (invalid != CustomerValidator.Code.OK) { warn(invalid.message); return; }
+
+        // the duplicate check is the insert itself: EXISTS if the phone is taken
+        async.insert(new Customer(phone,name,addr,email)).whenCompleteAsync((o, err) -> {
+            if (err != null) { writeFailed("ADD", phone, err); return; }
+            if (o == CustomerWrite.Outcome.EXISTS) { warn("Phone already exists."); return; }
+            if (o != CustomerWrite.Outcome.INSERTED) { warn("Insert failed."); return; }
+            logMsg("[ADD] " + phone + " | " + name);
+        }, AsyncCustomerStore.EDT);
+    }
+
+    // update
+    private void onUpdate() {
+        int r = table.getSelectedRow();
+        if(r<0){ warn("Select row"); return;}
+
+        Customer sel = tableModel.getCustomerAt(r);
+        if(sel==null){ warn("Select row"); return;}
+        // the row as it will be once edits still queued for it are in,
+        // so the form doesn't start from a stale copy
+        async.getByPhone(sel.getPhoneNumber()).whenCompleteAsync((cur, err) -> {
+            if (err != null) { warn("Could not read " + sel.getPhoneNumber() + ":\n" + err.getMessage()); return; }
+            if (cur == null) { warn("Customer no longer exists."); return; }
+            editCustomer(cur);
+        }, AsyncCustomerStore.EDT);
+    }
+
+    private void editCustomer(Customer sel) {
+        String phone = sel.getPhoneNumber();
+        String name  = sel.getName();
+        String addr  = sel.getAddress();
+        String email = CustomerStore.safe(sel.getEmail());
+
+        JTextField ph=new JTextField(phone); ph.setEditable(false);
+        JTextField nm=new JTextField(name);
+        JTextField ad=new JTextField(addr);
+        JTextField em=new JTextField(email);
+
+        JPanel form=makeForm(ph,nm,ad,em);
+        if(JOptionPane.showConfirmDialog(this,form,"Edit Customer",
+                JOptionPane.OK_CANCEL_OPTION)!=JOptionPane.OK_OPTION) return;
+
+        String newName=nm.getText().trim();
+        String newAddr=ad.getText().trim();
+        String newEmail=em.getText().trim();
+
+        CustomerValidator.Code invalid = CustomerValidator.check(phone, newName, newAddr, newEmail);
+        if (invalid != CustomerValidator.Code.OK) { warn(invalid.message); return; }
+
+        async.update(new Customer(phone,newName,newAddr,newEmail)).whenCompleteAsync((o, err) -> {
+            if (err != null) { writeFailed("UPDATE", phone, err); return; }
+            if(o != CustomerWrite.Outcome.UPDATED){
+                warn("Update failed.");
+                return;
+            }
+            logMsg("[UPDATE] " + phone + " | " + newName);
+        }, AsyncCustomerStore.EDT);
+    }
+
+    // delete
+    private void onDelete() {
+        int r=table.getSelectedRow();
+        if(r<0){ warn("Select row"); return;}
+
+        Customer sel = tableModel.getCustomerAt(r);
+        if(sel==null){ warn("Select row"); return;}
+        String ph = CustomerStore.normalizePhone(sel.getPhoneNumber());
+
+        if(JOptionPane.showConfirmDialog(this,"Delete?","Confirm",
+                JOptionPane.YES_NO_OPTION)==JOptionPane.YES_OPTION){
+            async.delete(ph).whenCompleteAsync((o, err) -> {
+                if (err != null) {
+                    writeFailed("DELETE", ph, err);
+                } else if (o == CustomerWrite.Outcome.DELETED) {
+                    logMsg("[DELETE] " + ph);
+                } else {
+                    logMsg("[DELETE] failed " + ph);
+                }
+            }, AsyncCustomerStore.EDT);
+        }
+    }
+
+    // a queued edit that never got an outcome (writer error, shut down)
+    private void writeFailed(String tag, String phone, Throwable err) {
+        Throwable t = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        logMsg("[" + tag + "] failed " + phone + ": " + t);
+        warn("Could not save the change to " + phone + ":\n" + t.getMessage());
+    }
+
+    // refresh table
+    private void refreshTable() {
+        if (!searchField.getText().trim().isEmpty()) { filter(); return; }
+        tableModel.reload().thenAcceptAsync(n -> logMsg("[REFRESH] rows=" + n), AsyncCustomerStore.EDT);
+    }
+
+    private void doExit(){
+        if (exiting) return;
+        if(JOptionPane.showConfirmDialog(this,"Exit?","Confirm",
+                JOptionPane.YES_NO_OPTION)==JOptionPane.YES_OPTION){
+            if (job != null) job.cancel(true);
+            if (async == null) { exit(); return; }
+            // edits still queued for a group commit go in before the connections
+            // close; the wait happens off the EDT, with the UI locked meanwhile
+            exiting = true;
+            for (JComponent c : needsStore) c.setEnabled(false);
+            progress.setIndeterminate(true);
+            progress.setString("Saving edits...");
+            async.flush().orTimeout(EXIT_FLUSH_SECONDS, TimeUnit.SECONDS).whenCompleteAsync((v, err) -> {
+                if (err != null) {
+                    Throwable t = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                    logMsg("[EXIT] flush failed: " + t);
+                    warn(t instanceof TimeoutException
+                            ? "Saving the last edits did not finish in " + EXIT_FLUSH_SECONDS + " s; they may be lost."
+                            : "Saving the last edits failed; they may be lost:\n" + t.getMessage());
+                }
+                exit();
+            }, AsyncCustomerStore.EDT);
+        }
+    }
+
+    // after the flush: closing the store can wait on a stuck writer, so not on the EDT
+    private void exit() {
+        logModel.stop();
+        CompletableFuture.runAsync(() -> {
+            if (async != null) async.shutdown();
+            ConnectionManager.shutdown();
+            activity.close(); // last lines to the log file
+            System.exit(0);
+        });
+    }
+
+    // search
+    private void filter(){
+        String t=searchField.getText().trim();
+        if(t.isEmpty()) {
+            tableModel.setFilter("");
+            logMsg("[SEARCH] cleared");
+        } else if (searchIndex.isReady()) {
+            long t0 = System.nanoTime();
+            List<Customer> hits = searchIndex.search(t, SEARCH_LIMIT);
+            tableModel.showRows(hits);
+            logMsg(String.format("[SEARCH] '%s' %d hits (%.1f ms)", t, hits.size(), (System.nanoTime() - t0) / 1e6));
+        } else if (t.chars().anyMatch(Character::isLetter)) {
+            // index still loading: ranked full-text search in the database
+            async.search(t, SEARCH_LIMIT, 0).thenAcceptAsync(hits -> {
+                if (!t.equals(searchField.getText().trim())) return; // user kept typing
+                tableModel.showRows(hits);
+                logMsg("[SEARCH] '" + t + "' " + hits.size() + " hits (full-text)");
+            }, AsyncCustomerStore.EDT);
+        } else {
+            tableModel.setFilter(t);
+            logMsg("[SEARCH] '" + t + "'");
+        }
+    }
+
+    private void loadSearchIndex() {
+        async.loadIndex(searchIndex).thenAcceptAsync(ok -> {
+            if (ok) logMsg("[SEARCH] index ready: " + searchIndex.size() + " customers");
+            else logMsg("[SEARCH] index load failed, using database filter");
+        }, AsyncCustomerStore.EDT);
+    }
+}
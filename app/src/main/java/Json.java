@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// the little JSON the CLI and the HTTP API need: flat objects out, flat
+// objects (string, number, boolean and null values) in
+final class Json {
+
+    private Json() { }
+
+    // {"k1":v1,...} and a newline; strings are quoted, numbers and booleans are not
+    static void line(Writer w, Object... kv) throws IOException {
+        w.write(object(new StringBuilder(128), kv).append('\n').toString());
+    }
+
+    static String object(Object... kv) { return object(new StringBuilder(128), kv).toString(); }
+
+    static StringBuilder object(StringBuilder sb, Object... kv) {
+        sb.append('{');
+        for (int i = 0; i < kv.length; i += 2) {
+            if (i > 0) sb.append(',');
+            quote(sb, (String) kv[i]).append(':');
+            value(sb, kv[i + 1]);
+        }
+        return sb.append('}');
+    }
+
+    static StringBuilder customer(StringBuilder sb, Customer c) {
+        return object(sb, "phone", c.getPhoneNumber(), "name", c.getName(),
+                "address", c.getAddress(), "email", CustomerStore.safe(c.getEmail()));
+    }
+
+    static StringBuilder value(StringBuilder sb, Object v) {
+        if (v == null) return sb.append("null");
+        if (v instanceof String) return quote(sb, (String) v);
+        return sb.append(v);
+    }
+
+    static StringBuilder quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    // one flat object; values come back as strings (null for null).
+    // Nested objects and arrays are rejected.
+    static Map<String, String> parseObject(String s) {
+        Parser p = new Parser(s);
+        Map<String, String> out = new LinkedHashMap<>();
+        p.expect('{');
+        if (!p.skip('}')) {
+            do {
+                String k = p.string();
+                p.expect(':');
+                out.put(k, p.scalar());
+            } while (p.skip(','));
+            p.expect('}');
+        }
+        p.end();
+        return out;
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int i;
+
+        Parser(String s) { this.s = s; }
+
+        private void ws() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        boolean skip(char c) {
+            ws();
+            if (i < s.length() && s.charAt(i) == c) { i++; return true; }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!skip(c)) throw error("expected '" + c + "'");
+        }
+
+        void end() {
+            ws();
+            if (i != s.length()) throw error("trailing characters");
+        }
+
+        String scalar() {
+            ws();
+            if (i >= s.length()) throw error("value expected");
+            char c = s.charAt(i);
+            if (c == '"') return string();
+            if (c == '{' || c == '[') throw error("nested values are not supported");
+            int from = i;
+            while (i < s.length() && ",} \t\r\n".indexOf(s.charAt(i)) < 0) i++;
+            String v = s.substring(from, i);
+            if (v.equals("null")) return null;
+            if (v.equals("true") || v.equals("false") || v.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) return v;
+            throw error("bad value " + v);
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (i >= s.length()) throw error("unterminated string");
+                char c = s.charAt(i++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                if (i >= s.length()) throw error("unterminated string");
+                char e = s.charAt(i++);
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (i + 4 > s.length()) throw error("bad \\u escape");
+                        try { sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); }
+                        catch (NumberFormatException x) { throw error("bad \\u escape"); }
+                        i += 4;
+                        break;
+                    default: throw error("bad escape \\" + e);
+                }
+            }
+        }
+
+        IllegalArgumentException error(String what) {
+            return new IllegalArgumentException(what + " at offset " + i);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+// process-wide latency histograms and counters, cheap enough to leave on
+// (a record is two nanoTime() calls and a few atomic adds). Each metric is
+// also an MXBean: MaintenanceApp:type=Timer|Counter,name=<name>
+public final class Metrics {
+
+    private static final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private Metrics() { }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> register("Timer", n, new Timer(n)));
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> register("Counter", n, new Counter(n)));
+    }
+
+    // sorted by name
+    public static List<Timer> timers() {
+        List<Timer> out = new ArrayList<>(timers.values());
+        out.sort(Comparator.comparing(Timer::getName));
+        return out;
+    }
+
+    public static List<Counter> counters() {
+        List<Counter> out = new ArrayList<>(counters.values());
+        out.sort(Comparator.comparing(Counter::getName));
+        return out;
+    }
+
+    public static void resetAll() {
+        for (Timer t : timers.values()) t.reset();
+        for (Counter c : counters.values()) c.reset();
+    }
+
+    // starting the platform MBean server takes a few hundred ms, so beans
+    // are registered in the background and the metric is usable at once
+    private static final ExecutorService jmx = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "metrics-jmx");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static volatile boolean jmxEnabled = true;
+
+    // before the first metric is made: no MXBeans, no JMX classes loaded (CLI)
+    public static void disableJmx() { jmxEnabled = false; }
+
+    private static <T> T register(String type, String name, T bean) {
+        if (!jmxEnabled) return bean;
+        jmx.execute(() -> {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(bean,
+                        new ObjectName("MaintenanceApp:type=" + type + ",name=" + ObjectName.quote(name)));
+            } catch (Exception ignore) { } // no JMX (or already there): metrics still work
+        });
+        return bean;
+    }
+
+    public interface TimerMXBean {
+        String getName();
+        long getCount();
+        double getMeanMicros();
+        double getP50Micros();
+        double getP90Micros();
+        double getP99Micros();
+        double getP999Micros();
+        double getMaxMicros();
+        void reset();
+    }
+
+    public interface CounterMXBean {
+        String getName();
+        long getValue();
+        void reset();
+    }
+
+    // HDR-style log-linear histogram of nanoseconds: 32 linear buckets per
+    // power of two, so a percentile is off by at most ~3%
+    public static final class Timer implements TimerMXBean {
+        private static final int SUB_BITS = 5, SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Timer(String name) { this.name = name; }
+
+        // usage: long t0 = System.nanoTime(); ... timer.since(t0);
+        public void since(long startNanos) { record(System.nanoTime() - startNanos); }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(bucket(nanos));
+            total.add(nanos);
+            long m = max.get();
+            while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+        }
+
+        public Snapshot snapshot() {
+            long[] b = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += b[i] = buckets.get(i);
+            return new Snapshot(name, b, n, total.sum(), max.get());
+        }
+
+        @Override public String getName() { return name; }
+        @Override public long getCount() { return snapshot().count; }
+        @Override public double getMeanMicros() { return snapshot().mean() / 1e3; }
+        @Override public double getP50Micros() { return snapshot().percentile(50) / 1e3; }
+        @Override public double getP90Micros() { return snapshot().percentile(90) / 1e3; }
+        @Override public double getP99Micros() { return snapshot().percentile(99) / 1e3; }
+        @Override public double getP999Micros() { return snapshot().percentile(99.9) / 1e3; }
+        @Override public double getMaxMicros() { return max.get() / 1e3; }
+
+        @Override public void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            total.reset();
+            max.set(0);
+        }
+
+        static int bucket(long v) {
+            if (v < SUB) return (int) v;
+            int e = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BITS
+            int shift = e - SUB_BITS + 1;
+            return (shift << SUB_BITS) + (int) (v >>> (shift - 1)) - SUB;
+        }
+
+        // middle of the bucket's value range
+        static long value(int i) {
+            if (i < SUB) return i;
+            int shift = i >>> SUB_BITS;
+            long lo = (long) ((i & (SUB - 1)) + SUB) << (shift - 1);
+            return lo + ((1L << (shift - 1)) >>> 1);
+        }
+    }
+
+    // one timer's numbers at a point in time, in nanoseconds
+    public static final class Snapshot {
+        public final String name;
+        public final long count, totalNanos, maxNanos;
+        private final long[] buckets;
+
+        Snapshot(String name, long[] buckets, long count, long totalNanos, long maxNanos) {
+            this.name = name;
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public double mean() { return count == 0 ? 0 : (double) totalNanos / count; }
+
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(count * p / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) return Math.min(Timer.value(i), maxNanos);
+            }
+            return maxNanos;
+        }
+    }
+
+    public static final class Counter implements CounterMXBean {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) { this.name = name; }
+
+        public void increment() { value.increment(); }
+        public void add(long n) { value.add(n); }
+
+        @Override public String getName() { return name; }
+        @Override public long getValue() { return value.sum(); }
+        @Override public void reset() { value.reset(); }
+    }
+}
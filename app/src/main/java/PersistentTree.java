@@ -0,0 +1,166 @@
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// immutable sorted map (AVL tree with subtree sizes). put/remove return a
+// new tree that shares every node off the changed path with the old one, so
+// an edit costs O(log n) and old versions stay valid for whoever holds them.
+// Sizes give positional access: valueAt(i) / rank(key) in O(log n).
+public final class PersistentTree<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left, right;
+        final int height, size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    private final Comparator<? super K> order;
+    private final Node<K, V> root;
+
+    private PersistentTree(Comparator<? super K> order, Node<K, V> root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    public static <K, V> PersistentTree<K, V> empty(Comparator<? super K> order) {
+        return new PersistentTree<>(order, null);
+    }
+
+    // keys must already be sorted by order and distinct; O(n)
+    public static <K, V> PersistentTree<K, V> ofSorted(Comparator<? super K> order, List<K> keys, List<V> values) {
+        return new PersistentTree<>(order, build(keys, values, 0, keys.size()));
+    }
+
+    public int size() { return size(root); }
+
+    public V get(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = order.compare(key, n.key);
+            if (c == 0) return n.value;
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    public PersistentTree<K, V> put(K key, V value) {
+        Node<K, V> r = put(root, key, value);
+        return r == root ? this : new PersistentTree<>(order, r);
+    }
+
+    public PersistentTree<K, V> remove(K key) {
+        Node<K, V> r = remove(root, key);
+        return r == root ? this : new PersistentTree<>(order, r);
+    }
+
+    // 0-based position in key order
+    public K keyAt(int i) { return at(i).key; }
+    public V valueAt(int i) { return at(i).value; }
+
+    // position of key, or -(insertion point) - 1 like Arrays.binarySearch
+    public int rank(K key) {
+        Node<K, V> n = root;
+        int before = 0;
+        while (n != null) {
+            int c = order.compare(key, n.key);
+            if (c == 0) return before + size(n.left);
+            if (c < 0) n = n.left;
+            else {
+                before += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return -before - 1;
+    }
+
+    // in key order
+    public void forEach(BiConsumer<? super K, ? super V> action) { walk(root, action); }
+
+    private Node<K, V> at(int i) {
+        if (i < 0 || i >= size()) throw new IndexOutOfBoundsException(i + " of " + size());
+        Node<K, V> n = root;
+        while (true) {
+            int l = size(n.left);
+            if (i == l) return n;
+            if (i < l) n = n.left;
+            else {
+                i -= l + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    private Node<K, V> put(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value, null, null);
+        int c = order.compare(key, n.key);
+        if (c < 0) return balance(n.key, n.value, put(n.left, key, value), n.right);
+        if (c > 0) return balance(n.key, n.value, n.left, put(n.right, key, value));
+        return value == n.value ? n : new Node<>(key, value, n.left, n.right);
+    }
+
+    private Node<K, V> remove(Node<K, V> n, K key) {
+        if (n == null) return null;
+        int c = order.compare(key, n.key);
+        if (c < 0) {
+            Node<K, V> l = remove(n.left, key);
+            return l == n.left ? n : balance(n.key, n.value, l, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> r = remove(n.right, key);
+            return r == n.right ? n : balance(n.key, n.value, n.left, r);
+        }
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+        Node<K, V> next = n.right;
+        while (next.left != null) next = next.left;
+        return balance(next.key, next.value, n.left, removeFirst(n.right));
+    }
+
+    private static <K, V> Node<K, V> removeFirst(Node<K, V> n) {
+        if (n.left == null) return n.right;
+        return balance(n.key, n.value, removeFirst(n.left), n.right);
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> l, Node<K, V> r) {
+        if (height(l) > height(r) + 1) {
+            if (height(l.left) >= height(l.right))
+                return new Node<>(l.key, l.value, l.left, new Node<>(key, value, l.right, r));
+            Node<K, V> m = l.right;
+            return new Node<>(m.key, m.value, new Node<>(l.key, l.value, l.left, m.left), new Node<>(key, value, m.right, r));
+        }
+        if (height(r) > height(l) + 1) {
+            if (height(r.right) >= height(r.left))
+                return new Node<>(r.key, r.value, new Node<>(key, value, l, r.left), r.right);
+            Node<K, V> m = r.left;
+            return new Node<>(m.key, m.value, new Node<>(key, value, l, m.left), new Node<>(r.key, r.value, m.right, r.right));
+        }
+        return new Node<>(key, value, l, r);
+    }
+
+    private static <K, V> Node<K, V> build(List<K> keys, List<V> values, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        return new Node<>(keys.get(mid), values.get(mid), build(keys, values, from, mid), build(keys, values, mid + 1, to));
+    }
+
+    private static <K, V> void walk(Node<K, V> n, BiConsumer<? super K, ? super V> action) {
+        while (n != null) {
+            walk(n.left, action);
+            action.accept(n.key, n.value);
+            n = n.right;
+        }
+    }
+
+    private static int height(Node<?, ?> n) { return n == null ? 0 : n.height; }
+    private static int size(Node<?, ?> n) { return n == null ? 0 : n.size; }
+}
@@ -0,0 +1,112 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// bounded LRU of normalized phone -> customer, including "no such phone";
+// writers update it after the database, readers only fill it if no write
+// happened while they were reading. Writes from other connections or
+// processes come in through advance() from the change log.
+public class PhoneCache {
+
+    // cached "not found"
+    private static final Customer MISSING = new Customer("", "", "", "");
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Customer> map;
+    private long writes;
+    private long seq = -1; // change log position the entries are current for, -1 none yet
+    private long hits, misses, evictions;
+
+    public PhoneCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Customer> e) {
+                if (size() <= PhoneCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // result of a lookup: hit (customer may be null = known missing) or miss
+    public static final class Lookup {
+        public final boolean hit;
+        public final Customer customer;
+        public final long stamp;
+
+        private Lookup(boolean hit, Customer customer, long stamp) {
+            this.hit = hit;
+            this.customer = customer;
+            this.stamp = stamp;
+        }
+    }
+
+    public synchronized Lookup get(String phone) {
+        Customer c = map.get(phone);
+        if (c == null) {
+            misses++;
+            return new Lookup(false, null, writes);
+        }
+        hits++;
+        return new Lookup(true, c == MISSING ? null : c, writes);
+    }
+
+    // cache a database read, unless a write landed since the lookup
+    public synchronized void fill(String phone, Customer c, long stamp) {
+        if (stamp != writes) return;
+        map.put(phone, c == null ? MISSING : c);
+    }
+
+    // after a successful insert/update (c) or delete (null)
+    public synchronized void put(String phone, Customer c) {
+        writes++;
+        map.put(phone, c == null ? MISSING : c);
+    }
+
+    public synchronized long seq() { return seq; }
+
+    // the change log moved from..to: drop the phones changed in between
+    // (changed null: drop everything)
+    public synchronized void advance(long from, long to, List<String> changed) {
+        if (to == seq || (to < seq && from != seq)) return; // a later advance already covered it
+        writes++;
+        // a log that went back is another (or a restored) database
+        if (changed == null || to < seq || from > seq) map.clear();
+        else for (String phone : changed) map.remove(phone);
+        seq = to;
+    }
+
+    // after bulk writes
+    public synchronized void clear() {
+        writes++;
+        map.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, map.size(), maxEntries);
+    }
+
+    // snapshot of the counters
+    public static final class Stats {
+        public final long hits, misses, evictions;
+        public final int size, capacity;
+
+        Stats(long hits, long misses, long evictions, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public double hitRate() {
+            long n = hits + misses;
+            return n == 0 ? 0 : (double) hits / n;
+        }
+
+        @Override public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d size=%d/%d hitRate=%.1f%%",
+                    hits, misses, evictions, size, capacity, hitRate() * 100);
+        }
+    }
+}
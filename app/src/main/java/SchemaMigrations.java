@@ -0,0 +1,88 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// versioned schema: PRAGMA user_version is the number of the last step
+// applied. At startup that is one read; when it is behind, the missing
+// steps run in order, each in its own transaction together with the
+// version bump, so a crash part way leaves a database a later start can
+// carry on from. Append new steps, never edit or reorder applied ones.
+public final class SchemaMigrations {
+
+    interface Step {
+        void apply(Statement st) throws SQLException;
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final List<Migration> STEPS = List.of(
+            // databases made before migrations have user_version 0 and may
+            // already have all of this, hence IF NOT EXISTS
+            new Migration(1, "customers table and full-text index", st -> {
+                st.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS customers (
+                      phone TEXT PRIMARY KEY,
+                      name TEXT NOT NULL,
+                      address TEXT NOT NULL,
+                      email TEXT
+                    )
+                """);
+                CustomerDao.ensureSearchTable(st);
+            }),
+            // every column, so name-ordered scans, keyset pages and listAll
+            // read the index alone in order: no temp sort, no table lookups
+            new Migration(2, "covering index for (name, phone) order", st ->
+                    st.executeUpdate("CREATE INDEX IF NOT EXISTS customers_by_name ON customers(name, phone, address, email)")),
+            new Migration(3, "case-insensitive email lookup index", st ->
+                    st.executeUpdate("CREATE INDEX IF NOT EXISTS customers_by_email ON customers(email COLLATE NOCASE)")),
+            new Migration(4, "change log for incremental exports", ChangeLog::createSchema)
+    );
+
+    public static final int LATEST = STEPS.get(STEPS.size() - 1).version;
+
+    private SchemaMigrations() { }
+
+    // bring the database up to LATEST; returns the version it was at
+    public static int migrate(Connection c) throws SQLException {
+        int from;
+        try (Statement st = c.createStatement()) {
+            from = userVersion(st);
+            if (from >= LATEST) return from; // the usual case
+            c.setAutoCommit(false);
+            try {
+                for (Migration m : STEPS) {
+                    if (m.version <= from) continue;
+                    m.step.apply(st);
+                    st.executeUpdate("PRAGMA user_version = " + m.version);
+                    c.commit();
+                }
+                st.executeUpdate("ANALYZE"); // let the planner see the new indexes
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw new SQLException("Schema migration from version " + userVersion(st) + " failed: " + e.getMessage(), e);
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+        return from;
+    }
+
+    static int userVersion(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
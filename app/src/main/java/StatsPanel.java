@@ -0,0 +1,108 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// live view of Metrics: latency percentiles per operation, counters,
+// import/export throughput and the phone cache; refreshes once a second
+// while on screen
+public class StatsPanel extends JPanel {
+
+    private static final String[] COLUMNS = {"Operation", "Count", "Mean µs", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "Max µs"};
+
+    private final CustomerStore store;
+    private final TimerModel model = new TimerModel();
+    private final JTextArea totals = new JTextArea(8, 40);
+    private final Timer refresh = new Timer(1000, e -> refresh());
+
+    public StatsPanel(CustomerStore store) {
+        super(new BorderLayout(5, 5));
+        this.store = store;
+        setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        totals.setEditable(false);
+        totals.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> { Metrics.resetAll(); refresh(); });
+        JPanel south = new JPanel(new BorderLayout(5, 5));
+        south.add(new JScrollPane(totals), BorderLayout.CENTER);
+        south.add(reset, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+        refresh();
+    }
+
+    @Override public void addNotify() {
+        super.addNotify();
+        refresh.start();
+    }
+
+    @Override public void removeNotify() {
+        refresh.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        List<Metrics.Snapshot> rows = new ArrayList<>();
+        for (Metrics.Timer t : Metrics.timers()) rows.add(t.snapshot());
+        model.set(rows);
+
+        StringBuilder sb = new StringBuilder();
+        for (Metrics.Counter c : Metrics.counters()) sb.append(String.format("%-24s %,d%n", c.getName(), c.getValue()));
+        sb.append(String.format("%-24s %,.0f rows/s%n", "import", perSec("import.rows", "store.import")));
+        sb.append(String.format("%-24s %,.0f rows/s, %.1f MB/s%n", "export",
+                perSec("export.rows", "store.export"), perSec("export.bytes", "store.export") / 1e6));
+        sb.append(String.format("%-24s window %.0f ms, database %.0f ms, first rows %.0f ms (since main)%n", "startup",
+                millis("startup.window"), millis("startup.database"), millis("startup.firstRows")));
+        sb.append(String.format("%-24s %s", "phone cache", store.getCacheStats()));
+        totals.setText(sb.toString());
+    }
+
+    // a one-off timing (recorded once, so max is the value)
+    private static double millis(String timer) { return Metrics.timer(timer).snapshot().maxNanos / 1e6; }
+
+    // counter per second of the timer's total time
+    private static double perSec(String counter, String timer) {
+        Metrics.Snapshot s = Metrics.timer(timer).snapshot();
+        return s.totalNanos == 0 ? 0 : Metrics.counter(counter).getValue() * 1e9 / s.totalNanos;
+    }
+
+    private static final class TimerModel extends AbstractTableModel {
+        private List<Metrics.Snapshot> rows = List.of();
+
+        void set(List<Metrics.Snapshot> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override public Class<?> getColumnClass(int c) {
+            return c == 0 ? String.class : c == 1 ? Long.class : Double.class;
+        }
+
+        @Override public Object getValueAt(int r, int c) {
+            Metrics.Snapshot s = rows.get(r);
+            switch (c) {
+                case 0: return s.name;
+                case 1: return s.count;
+                case 2: return micros(s.mean());
+                case 3: return micros(s.percentile(50));
+                case 4: return micros(s.percentile(90));
+                case 5: return micros(s.percentile(99));
+                case 6: return micros(s.percentile(99.9));
+                default: return micros(s.maxNanos);
+            }
+        }
+
+        private static double micros(double nanos) { return Math.round(nanos / 100.0) / 10.0; }
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// benchmark workloads; lives in the default package next to the app classes,
+// the JMH classes (which need a package) reach it through method handles
+public class CsvFixtures {
+
+    // customers.csv-shaped file of n rows: quoted addresses, some escaped quotes
+    public static Path sample(int n) throws IOException {
+        Path p = Files.createTempFile("customers-bench", ".csv");
+        p.toFile().deleteOnExit();
+        StringBuilder sb = new StringBuilder(n * 80);
+        sb.append("\"PhoneNumber,\",\"Name,\",\"Address,\",Email\n");
+        for (int i = 0; i < n; i++) {
+            sb.append(4075550000L + i).append(',');
+            sb.append(i % 10 == 0 ? "\"Monkey D. \"\"Lucy\"\" " + i + "\"" : "Roronoa Zoro " + i).append(',');
+            sb.append('"').append(i % 900).append(" Shimotsuki Village, East Blue\"").append(',');
+            sb.append(i % 5 == 0 ? "" : "user" + i + "@strawhat.example").append('\n');
+        }
+        Files.writeString(p, sb, StandardCharsets.UTF_8);
+        return p;
+    }
+
+    // the pre-CsvReader import path: readLine() + per-line split
+    public static long legacy(Path p) throws IOException {
+        long chars = 0;
+        try (BufferedReader br = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null)
+                for (String f : legacyParseLine(line)) chars += f.length();
+        }
+        return chars;
+    }
+
+    public static long channel(Path p) throws IOException {
+        try (CsvReader r = CsvReader.open(p)) { return drain(r); }
+    }
+
+    public static long mapped(Path p) throws IOException {
+        try (CsvReader r = CsvReader.map(p)) { return drain(r); }
+    }
+
+    // decode every field, as the importer does; returns total chars like legacy()
+    private static long drain(CsvReader r) throws IOException {
+        long chars = 0;
+        while (r.next()) {
+            for (int i = 0; i < r.fields(); i++) chars += r.get(i).length();
+        }
+        return chars;
+    }
+
+    // verbatim copy of the old CustomerStore.parseCsvLine
+    private static List<String> legacyParseLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean q=false;
+        for (char c : line.toCharArray()) {
+            if (c=='"') q=!q;
+            else if (c==',' && !q) { result.add(sb.toString()); sb.setLength(0); }
+            else sb.append(c);
+        }
+        result.add(sb.toString());
+        return result;
+    }
+}
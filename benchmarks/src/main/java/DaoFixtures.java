@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+
+// data access workloads over synthetic customers. Datasets are built once per
+// size into the temp directory and reused by later runs; row i always has
+// phone(i), so benchmarks address rows by index.
+public class DaoFixtures {
+
+    private static CustomerStore store;
+
+    public static String phone(long i) { return Long.toString(2_000_000_000L + i); }
+
+    static Customer customer(long i, String tag) {
+        return new Customer(phone(i), "Customer " + tag + " " + i, (i % 9000) + " Oak St, Orlando FL", "c" + i + "@example.com");
+    }
+
+    // point the app at the n-row dataset, building it first if needed
+    public static void open(int rows) throws IOException, SQLException {
+        Path db = Path.of(System.getProperty("java.io.tmpdir"), "customers-bench-" + rows + ".db");
+        if (!Files.exists(db)) build(db, rows);
+        ConnectionManager.setDatabasePath(db.toString());
+        store = new CustomerStore();
+    }
+
+    public static void close() { ConnectionManager.shutdown(); }
+
+    private static void build(Path db, int rows) throws IOException, SQLException {
+        Path tmp = db.resolveSibling(db.getFileName() + ".building");
+        Files.deleteIfExists(tmp);
+        ConnectionManager.setDatabasePath(tmp.toString());
+        CustomerDao.ensureTable();
+        try (CustomerDao.BulkUpsert bulk = CustomerDao.openBulkUpsert(50_000)) {
+            for (long i = 0; i < rows; i++) bulk.add(customer(i, "base"));
+        }
+        ConnectionManager.shutdown(); // checkpoints the WAL into the file
+        Files.move(tmp, db, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // csv of the same synthetic rows, for import benchmarks
+    public static Path csv(int rows) throws IOException {
+        Path p = Path.of(System.getProperty("java.io.tmpdir"), "customers-bench-" + rows + ".csv");
+        if (Files.exists(p)) return p;
+        Path tmp = p.resolveSibling(p.getFileName() + ".building");
+        try (CsvWriter w = new CsvWriter(Files.newOutputStream(tmp))) {
+            w.field("Phone"); w.field("Name"); w.field("Address"); w.field("Email");
+            w.endRow();
+            for (long i = 0; i < rows; i++) {
+                Customer c = customer(i, "csv");
+                w.field(c.getPhoneNumber()); w.field(c.getName()); w.field(c.getAddress()); w.field(c.getEmail());
+                w.endRow();
+            }
+        }
+        Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING);
+        return p;
+    }
+
+    // single-row operations
+    public static Object find(long i) throws SQLException { return CustomerDao.find(phone(i)); }
+
+    public static Object lookup(long i) { return store.getByPhone(phone(i)); }
+
+    public static boolean update(long i) { return store.update(customer(i, "upd")); }
+
+    // a new row and its removal, so the table size stays put
+    public static boolean insertDelete(long i) {
+        return store.insert(customer(i, "new")) & store.delete(phone(i));
+    }
+
+    // whole table
+    public static long listAll() { return store.listAll().size(); }
+
+    public static long forEach() {
+        long[] n = {0};
+        store.forEach(c -> n[0]++);
+        return n[0];
+    }
+
+    public static long export(Path out) {
+        CustomerStore.ExportStats st = store.exportCsv(out, false, null, () -> false);
+        return st == null ? -1 : st.bytes;
+    }
+
+    // import csv into an empty database at db; returns rows written
+    public static long importInto(Path csv, Path db) throws IOException {
+        ConnectionManager.setDatabasePath(db.toString());
+        try {
+            String r = new CustomerStore().importCsv(csv);
+            if (r.startsWith("Import error")) throw new IOException(r);
+            return CustomerDao.count();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            ConnectionManager.shutdown();
+        }
+    }
+}
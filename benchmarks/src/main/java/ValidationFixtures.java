@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// validation workloads: rows shaped like customers.csv, checked the old
+// regex way and through CustomerValidator
+public class ValidationFixtures {
+
+    // n rows (4 cells each) cycled from the csv, with formatted phones and
+    // broken emails mixed in the way hand-kept feeds have them
+    public static String[] rows(String csv, int n) throws IOException {
+        Path p = Path.of(csv);
+        if (!Files.exists(p)) p = Path.of("..", csv); // run from the benchmarks module
+        List<String[]> base = new ArrayList<>();
+        try (CsvReader r = CsvReader.open(p)) {
+            while (r.next()) {
+                if (r.fields() != 4 || CustomerStore.isHeader(r)) continue;
+                base.add(new String[]{r.get(0), r.get(1), r.get(2), r.get(3)});
+            }
+        }
+        String[] out = new String[n * 4];
+        for (int i = 0; i < n; i++) {
+            String[] b = base.get(i % base.size());
+            String phone = b[0], email = b[3];
+            if (i % 3 == 1 && phone.length() == 10)
+                phone = "(" + phone.substring(0, 3) + ") " + phone.substring(3, 6) + "-" + phone.substring(6);
+            if (i % 11 == 5) email = email.replace('@', ' ');
+            if (i % 13 == 7) email = "";
+            out[i * 4] = phone;
+            out[i * 4 + 1] = " " + b[1];
+            out[i * 4 + 2] = b[2];
+            out[i * 4 + 3] = email;
+        }
+        return out;
+    }
+
+    // the pre-CustomerValidator checks, verbatim
+    public static int legacy(String[] cells) {
+        int ok = 0;
+        for (int i = 0; i < cells.length; i += 4) {
+            String phone = cells[i] == null ? "" : cells[i].replaceAll("[^0-9]", "");
+            String name = cells[i + 1].trim(), addr = cells[i + 2].trim(), email = cells[i + 3].trim();
+            if (phone.length() < 7 || phone.length() > 11 || name.isBlank() || addr.isBlank()) continue;
+            if (!email.isBlank() && !email.matches("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$")) continue;
+            ok++;
+        }
+        return ok;
+    }
+
+    public static int validator(String[] cells) {
+        int ok = 0;
+        for (int i = 0; i < cells.length; i += 4) {
+            CustomerValidator.Code c = CustomerValidator.check(CustomerValidator.digits(cells[i]),
+                    cells[i + 1].trim(), cells[i + 2].trim(), cells[i + 3].trim());
+            if (c == CustomerValidator.Code.OK) ok++;
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// single-row latency against an n-row table; SampleTime keeps the
+// percentiles (p50/p99/p99.9) in the results
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrudBench {
+
+    // phones the cached lookup keeps asking for, well inside PhoneCache's size
+    static final int HOT = 1000;
+
+    private static final MethodHandle OPEN = Fixtures.find("DaoFixtures", "open", void.class, int.class);
+    private static final MethodHandle CLOSE = Fixtures.find("DaoFixtures", "close", void.class);
+    private static final MethodHandle FIND = Fixtures.find("DaoFixtures", "find", Object.class, long.class);
+    private static final MethodHandle LOOKUP = Fixtures.find("DaoFixtures", "lookup", Object.class, long.class);
+    private static final MethodHandle UPDATE = Fixtures.find("DaoFixtures", "update", boolean.class, long.class);
+    private static final MethodHandle INSERT_DELETE = Fixtures.find("DaoFixtures", "insertDelete", boolean.class, long.class);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private long fresh;
+
+    @Setup
+    public void setup() throws Throwable {
+        OPEN.invokeExact(rows);
+        fresh = rows;
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        CLOSE.invokeExact();
+    }
+
+    private long any() { return ThreadLocalRandom.current().nextLong(rows); }
+
+    @Benchmark
+    public Object find() throws Throwable {
+        return (Object) FIND.invokeExact(any());
+    }
+
+    @Benchmark
+    public Object cachedLookup() throws Throwable {
+        return (Object) LOOKUP.invokeExact((long) ThreadLocalRandom.current().nextInt(HOT));
+    }
+
+    @Benchmark
+    public boolean update() throws Throwable {
+        return (boolean) UPDATE.invokeExact(any());
+    }
+
+    @Benchmark
+    public boolean insertDelete() throws Throwable {
+        return (boolean) INSERT_DELETE.invokeExact(fresh++);
+    }
+}
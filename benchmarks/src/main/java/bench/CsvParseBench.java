@@ -0,0 +1,65 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// CSV parse throughput: old readLine()+parseCsvLine vs CsvReader (channel and
+// mapped). The "bytes" counter is reported per second, i.e. input bytes/s.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParseBench {
+
+    private static final MethodHandle SAMPLE = Fixtures.find("CsvFixtures", "sample", Path.class, int.class);
+    private static final MethodHandle LEGACY = Fixtures.find("CsvFixtures", "legacy", long.class, Path.class);
+    private static final MethodHandle CHANNEL = Fixtures.find("CsvFixtures", "channel", long.class, Path.class);
+    private static final MethodHandle MAPPED = Fixtures.find("CsvFixtures", "mapped", long.class, Path.class);
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path file;
+    private long size;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        file = (Path) SAMPLE.invokeExact(rows);
+        size = Files.size(file);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long legacy(Bytes b) throws Throwable {
+        b.bytes += size;
+        return (long) LEGACY.invokeExact(file);
+    }
+
+    @Benchmark
+    public long channel(Bytes b) throws Throwable {
+        b.bytes += size;
+        return (long) CHANNEL.invokeExact(file);
+    }
+
+    @Benchmark
+    public long mapped(Bytes b) throws Throwable {
+        b.bytes += size;
+        return (long) MAPPED.invokeExact(file);
+    }
+}
@@ -0,0 +1,21 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// the app lives in the default package, which JMH classes cannot import;
+// workloads are static methods there, looked up once into constant handles
+final class Fixtures {
+
+    private Fixtures() { }
+
+    static MethodHandle find(String className, String method, Class<?> returns, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findStatic(Class.forName(className), method,
+                    MethodType.methodType(returns, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
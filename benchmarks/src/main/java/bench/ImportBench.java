@@ -0,0 +1,55 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// CustomerStore.importCsv into an empty database; "rows" is rows/s
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportBench {
+
+    private static final MethodHandle CSV = Fixtures.find("DaoFixtures", "csv", Path.class, int.class);
+    private static final MethodHandle IMPORT = Fixtures.find("DaoFixtures", "importInto", long.class, Path.class, Path.class);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path csv, db;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long rows;
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        csv = (Path) CSV.invokeExact(rows);
+        db = Files.createTempFile("customers-import", ".db");
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyDatabase() throws Exception {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) Files.deleteIfExists(Path.of(db + suffix));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        emptyDatabase();
+    }
+
+    @Benchmark
+    public long importCsv(Counters c) throws Throwable {
+        long n = (long) IMPORT.invokeExact(csv, db);
+        c.rows += n;
+        return n;
+    }
+}
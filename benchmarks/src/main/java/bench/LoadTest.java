@@ -0,0 +1,184 @@
+package bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// closed-loop load against a running ApiServer:
+//   java -cp benchmarks/target/benchmarks.jar bench.LoadTest [--url http://127.0.0.1:8080]
+//        [--clients 32] [--seconds 20] [--writes 20] [--rows 100000] [--seed]
+// Each client sends its next request as soon as the last one answers. A
+// request is a GET by phone, a PUT (upsert) or, for 1 in 20 reads, a page
+// of the listing; --writes is the write percentage. --seed first loads
+// --rows customers through POST /import. Prints throughput and latency
+// percentiles per kind, then the server's writes per commit.
+public final class LoadTest {
+
+    static final long BASE_PHONE = 5_550_000_000L;
+
+    private static final String[] KINDS = {"get", "put", "page"};
+
+    private LoadTest() { }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:8080";
+        int clients = 32, seconds = 20, writes = 20, rows = 100_000;
+        boolean seed = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url": url = args[++i]; break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--writes": writes = Integer.parseInt(args[++i]); break;
+                case "--rows": rows = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = true; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        if (url.endsWith("/")) url = url.substring(0, url.length() - 1);
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        if (seed) {
+            long t0 = System.nanoTime();
+            HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(url + "/import"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(csv(rows))).build(), HttpResponse.BodyHandlers.ofString());
+            System.out.printf(Locale.ROOT, "seed: %d rows in %.1f s -> %d %s%n", rows, (System.nanoTime() - t0) / 1e9, r.statusCode(), r.body());
+        }
+
+        // short warm-up so the first second's JIT and connection setup stay out of the numbers
+        run(http, url, clients, 2, writes, rows);
+        long before = statsCounter(http, url, "group.writes"), commitsBefore = statsCounter(http, url, "group.commits");
+
+        Client[] done = run(http, url, clients, seconds, writes, rows);
+
+        long[][] all = new long[KINDS.length][];
+        long errors = 0, total = 0;
+        for (int k = 0; k < KINDS.length; k++) {
+            int n = 0;
+            for (Client c : done) n += c.count[k];
+            all[k] = new long[n];
+            n = 0;
+            for (Client c : done) {
+                System.arraycopy(c.nanos[k], 0, all[k], n, c.count[k]);
+                n += c.count[k];
+            }
+            Arrays.sort(all[k]);
+            total += all[k].length;
+        }
+        for (Client c : done) errors += c.errors;
+
+        System.out.printf(Locale.ROOT, "%d clients, %d s, %d%% writes: %d requests, %.0f req/s, %d errors%n",
+                clients, seconds, writes, total, total / (double) seconds, errors);
+        System.out.printf(Locale.ROOT, "%-5s %9s %9s %9s %9s %9s %9s%n", "kind", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (int k = 0; k < KINDS.length; k++) {
+            long[] a = all[k];
+            if (a.length == 0) continue;
+            System.out.printf(Locale.ROOT, "%-5s %9d %9.0f %9.2f %9.2f %9.2f %9.2f%n", KINDS[k], a.length, a.length / (double) seconds,
+                    pct(a, 50) / 1e6, pct(a, 90) / 1e6, pct(a, 99) / 1e6, a[a.length - 1] / 1e6);
+        }
+        long w = statsCounter(http, url, "group.writes") - before, cm = statsCounter(http, url, "group.commits") - commitsBefore;
+        if (cm > 0) System.out.printf(Locale.ROOT, "server: %d writes in %d commits, %.1f writes per commit%n", w, cm, w / (double) cm);
+    }
+
+    private static Client[] run(HttpClient http, String url, int clients, int seconds, int writes, int rows)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Client[] cs = new Client[clients];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client c = cs[i] = new Client(http, url, writes, rows, deadline);
+            Thread t = new Thread(c, "load-" + i);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        return cs;
+    }
+
+    private static final class Client implements Runnable {
+        final HttpClient http;
+        final String url;
+        final int writes, rows;
+        final long deadline;
+        final long[][] nanos = new long[KINDS.length][1024];
+        final int[] count = new int[KINDS.length];
+        long errors;
+
+        Client(HttpClient http, String url, int writes, int rows, long deadline) {
+            this.http = http;
+            this.url = url;
+            this.writes = writes;
+            this.rows = rows;
+            this.deadline = deadline;
+        }
+
+        @Override public void run() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                long phone = BASE_PHONE + rnd.nextInt(rows);
+                int kind;
+                HttpRequest req;
+                if (rnd.nextInt(100) < writes) {
+                    kind = 1;
+                    String body = "{\"name\":\"Load " + rnd.nextInt(1_000_000) + "\",\"address\":\"" + phone % 9973
+                            + " Bench St\",\"email\":\"c" + phone + "@example.com\"}";
+                    req = HttpRequest.newBuilder(URI.create(url + "/customers/" + phone))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+                } else if (rnd.nextInt(20) == 0) {
+                    kind = 2;
+                    req = HttpRequest.newBuilder(URI.create(url + "/customers?limit=50&offset=" + rnd.nextInt(rows))).build();
+                } else {
+                    kind = 0;
+                    req = HttpRequest.newBuilder(URI.create(url + "/customers/" + phone)).build();
+                }
+                long t0 = System.nanoTime();
+                try {
+                    int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status >= 500 || (kind != 0 && status >= 400)) errors++;
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long t = System.nanoTime() - t0;
+                if (count[kind] == nanos[kind].length) nanos[kind] = Arrays.copyOf(nanos[kind], count[kind] * 2);
+                nanos[kind][count[kind]++] = t;
+            }
+        }
+    }
+
+    private static long pct(long[] sorted, double p) {
+        int i = (int) Math.ceil(sorted.length * p / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    private static long statsCounter(HttpClient http, String url, String name) throws IOException, InterruptedException {
+        String body = http.send(HttpRequest.newBuilder(URI.create(url + "/stats")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = Pattern.compile("\"" + Pattern.quote(name) + "\":(\\d+)").matcher(body);
+        return m.find() ? Long.parseLong(m.group(1)) : 0;
+    }
+
+    // phone,name,address,email for BASE_PHONE .. BASE_PHONE + rows - 1
+    static byte[] csv(int rows) {
+        StringBuilder sb = new StringBuilder(rows * 64).append("phone,name,address,email\n");
+        for (int i = 0; i < rows; i++) {
+            long phone = BASE_PHONE + i;
+            sb.append(phone).append(",Customer ").append(i).append(',').append(i % 9973).append(" Main St,c")
+                    .append(phone).append("@example.com\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
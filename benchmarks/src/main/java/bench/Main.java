@@ -0,0 +1,27 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// java -jar benchmarks/target/benchmarks.jar [JMH options] [regexp]
+// Same as JMH's own main, but results go to bench-results/jmh-<time>.json
+// unless -rf/-rff say otherwise; compare runs with any JMH JSON viewer.
+public final class Main {
+
+    private Main() { }
+
+    public static void main(String[] args) throws Exception {
+        List<String> a = new ArrayList<>(Arrays.asList(args));
+        if (!a.contains("-rf") && !a.contains("-rff") && !a.contains("-h") && !a.contains("-l")) {
+            Path dir = Files.createDirectories(Path.of("bench-results"));
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            a.addAll(0, List.of("-rf", "json", "-rff", dir.resolve("jmh-" + stamp + ".json").toString()));
+        }
+        org.openjdk.jmh.Main.main(a.toArray(new String[0]));
+    }
+}
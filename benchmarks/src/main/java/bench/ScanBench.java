@@ -0,0 +1,75 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// whole-table reads; the rows/bytes counters come out per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBench {
+
+    private static final MethodHandle OPEN = Fixtures.find("DaoFixtures", "open", void.class, int.class);
+    private static final MethodHandle CLOSE = Fixtures.find("DaoFixtures", "close", void.class);
+    private static final MethodHandle LIST_ALL = Fixtures.find("DaoFixtures", "listAll", long.class);
+    private static final MethodHandle FOR_EACH = Fixtures.find("DaoFixtures", "forEach", long.class);
+    private static final MethodHandle EXPORT = Fixtures.find("DaoFixtures", "export", long.class, Path.class);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path out;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+        public long rows;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        OPEN.invokeExact(rows);
+        out = Files.createTempFile("customers-export", ".csv");
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        CLOSE.invokeExact();
+        Files.deleteIfExists(out);
+    }
+
+    @Benchmark
+    public long listAll(Rows c) throws Throwable {
+        long n = (long) LIST_ALL.invokeExact();
+        c.rows += n;
+        return n;
+    }
+
+    @Benchmark
+    public long forEach(Rows c) throws Throwable {
+        long n = (long) FOR_EACH.invokeExact();
+        c.rows += n;
+        return n;
+    }
+
+    @Benchmark
+    public long export(Rows r, Bytes b) throws Throwable {
+        long bytes = (long) EXPORT.invokeExact(out);
+        r.rows += rows;
+        b.bytes += bytes;
+        return bytes;
+    }
+}
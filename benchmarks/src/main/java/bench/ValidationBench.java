@@ -0,0 +1,47 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// row validation: regex replaceAll/matches vs CustomerValidator scans.
+// Scores are per row; run with -prof gc to see bytes allocated per row.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBench {
+
+    static final int ROWS = 10_000;
+
+    private static final MethodHandle ROWS_OF = Fixtures.find("ValidationFixtures", "rows", String[].class, String.class, int.class);
+    private static final MethodHandle LEGACY = Fixtures.find("ValidationFixtures", "legacy", int.class, String[].class);
+    private static final MethodHandle VALIDATOR = Fixtures.find("ValidationFixtures", "validator", int.class, String[].class);
+
+    @Param({"customers.csv"})
+    public String csv;
+
+    private String[] cells;
+
+    @Setup
+    public void setup() throws Throwable {
+        cells = (String[]) ROWS_OF.invokeExact(csv, ROWS);
+        int a = (int) LEGACY.invokeExact(cells), b = (int) VALIDATOR.invokeExact(cells);
+        if (a != b) throw new IllegalStateException("legacy accepts " + a + " rows, validator " + b);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int legacy() throws Throwable {
+        return (int) LEGACY.invokeExact(cells);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int validator() throws Throwable {
+        return (int) VALIDATOR.invokeExact(cells);
+    }
+}